@@ -0,0 +1,72 @@
+package com.madina.citizen.benchmark;
+
+import com.madina.citizen.CitizenApplication;
+import graphql.ExecutionResult;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the real citizen application for benchmarks, without the web server and with a private
+ * in-memory DB. Documents are executed directly against the GraphQL engine, so results measure
+ * the resolvers and the DB rather than HTTP. SQL logging is off, and H2 result reuse is disabled
+ * so that repeating the same query really runs it.
+ */
+public final class BenchmarkServer implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final ExecutionGraphQlService graphQl;
+
+    private BenchmarkServer(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.graphQl = context.getBean(ExecutionGraphQlService.class);
+    }
+
+    public static BenchmarkServer start(String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.main.banner-mode=off",
+                "spring.main.web-application-type=none",
+                "logging.level.root=WARN",
+                "spring.jpa.show-sql=false",
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE"));
+        // A property given twice on the command line would be bound as "a,b": extras replace the defaults
+        for (String extra : extraProperties) {
+            String key = extra.substring(0, extra.indexOf('=') + 1);
+            properties.removeIf(p -> p.startsWith(key));
+            properties.add(extra);
+        }
+        String[] args = properties.stream().map(p -> "--" + p).toArray(String[]::new);
+        return new BenchmarkServer(new SpringApplicationBuilder(CitizenApplication.class).run(args));
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Runs a document and fails on GraphQL errors, which would otherwise look like a fast query. */
+    public ExecutionResult execute(String document) {
+        return execute(document, null);
+    }
+
+    public ExecutionResult execute(String document, Map<String, Object> variables) {
+        ExecutionResult result = graphQl.execute(new DefaultExecutionGraphQlRequest(
+                document, null, variables, null, UUID.randomUUID().toString(), null))
+                .block()
+                .getExecutionResult();
+        if (!result.getErrors().isEmpty()) {
+            throw new IllegalStateException("GraphQL errors: " + result.getErrors());
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.madina.citizen.benchmark;
+
+import graphql.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The report screen of the mobile app (one report, plus the latest reports of its category), run
+ * with the parsed document cache on and off (document-cache-size=0: every request is parsed and
+ * validated again). Only the seed data is loaded, so parsing and validation are a large part of
+ * each request, as they are for the small queries the app sends most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentCacheBenchmark {
+
+    private static final String REPORT_SCREEN = """
+            query ReportScreen($id: ID!, $category: String) {
+              report: getReportById(id: $id) { ...ReportFields reporterName }
+              related: reports(first: 5, orderBy: NEWEST, category: $category) {
+                edges { cursor node { ...ReportFields } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            fragment ReportFields on Report { id description location category status timestamp }
+            """;
+
+    private static final Map<String, Object> VARIABLES = Map.of("id", "1", "category", "Infrastructure");
+
+    @Param({"1000", "0"})
+    public int documentCacheSize;
+
+    private BenchmarkServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start("citizen.graphql.document-cache-size=" + documentCacheSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public ExecutionResult reportScreen() {
+        return server.execute(REPORT_SCREEN, VARIABLES);
+    }
+}
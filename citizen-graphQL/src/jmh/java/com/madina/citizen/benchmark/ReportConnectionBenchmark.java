@@ -0,0 +1,78 @@
+package com.madina.citizen.benchmark;
+
+import graphql.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A dashboard load: getAllReports (the whole table) against one page of the reports connection,
+ * first page and a page from the middle of the table. Run with -prof gc: gc.alloc.rate.norm is the
+ * heap each query allocates. A page should cost the same at 100k and 1M rows; getAllReports at 1M
+ * rows needs the bigger heap set below.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportConnectionBenchmark {
+
+    private static final String FIELDS = "id category status timestamp";
+    private static final int PAGE = 50;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private BenchmarkServer server;
+    private String middleById;
+    private String middleByNewest;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        server = BenchmarkServer.start();
+        JdbcTemplate jdbc = server.bean(JdbcTemplate.class);
+        ReportDataset.generate(jdbc, rows, 42);
+        jdbc.execute("ANALYZE TABLE reports");
+        // Cursors as a client would have them after paging halfway through
+        CursorStrategy<ScrollPosition> cursors = server.bean(CursorStrategy.class);
+        long middleId = jdbc.queryForObject("SELECT MIN(id) + COUNT(*) / 2 FROM reports", Long.class);
+        middleById = cursors.toCursor(ScrollPosition.forward(Map.of("id", middleId)));
+        Map<String, Object> middle = jdbc.queryForMap(
+                "SELECT timestamp, id FROM reports ORDER BY timestamp DESC, id DESC OFFSET ? ROWS FETCH FIRST 1 ROW ONLY", rows / 2);
+        middleByNewest = cursors.toCursor(ScrollPosition.forward(Map.of(
+                "timestamp", ((Timestamp) middle.get("TIMESTAMP")).toLocalDateTime(), "id", ((Number) middle.get("ID")).longValue())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public ExecutionResult getAllReports() {
+        return server.execute("{ getAllReports { " + FIELDS + " } }");
+    }
+
+    @Benchmark
+    public ExecutionResult firstPage() {
+        return server.execute("{ reports(first: " + PAGE + ") { totalCount edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+
+    @Benchmark
+    public ExecutionResult middlePage() {
+        return server.execute("{ reports(first: " + PAGE + ", after: \"" + middleById + "\") { edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+
+    @Benchmark
+    public ExecutionResult middlePageNewestFirst() {
+        return server.execute("{ reports(first: " + PAGE + ", after: \"" + middleByNewest + "\", orderBy: NEWEST) { edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+}
@@ -0,0 +1,57 @@
+package com.madina.citizen.benchmark;
+
+import com.madina.citizen.model.Categories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Repeatable synthetic reports table: same seed, same rows, timestamps spread over the last
+ * {@link #DAYS} days. Categories are typed the way citizens type them (one in ten lowercase), with
+ * the normalized key the application stores next to them. Inserted with plain JDBC batches because going through JPA would dominate
+ * the setup time at a million rows.
+ */
+final class ReportDataset {
+
+    static final String[] CATEGORIES = {"Infrastructure", "Lighting", "Trash", "Roads", "Water", "Noise"};
+    static final String[] STATUSES = {"PENDING", "IN_PROGRESS", "RESOLVED"};
+    static final int DAYS = 365;
+    private static final int BATCH = 5_000;
+
+    private ReportDataset() {
+    }
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    static void generate(JdbcTemplate jdbc, int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String sql = "INSERT INTO reports (description, location, category, category_key, reporter_name, status, timestamp) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            if (random.nextInt(10) == 0) {
+                category = category.toLowerCase(Locale.ROOT);
+            }
+            batch.add(new Object[]{
+                    "Synthetic report #" + i,
+                    "Rue " + random.nextInt(5_000) + ", Tunis",
+                    category,
+                    Categories.key(category),
+                    "Citizen " + random.nextInt(100_000),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    NOW.minusMinutes(random.nextLong(DAYS * 1_440L))});
+            if (batch.size() == BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.madina.citizen.benchmark;
+
+import graphql.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of "pending Roads reports of April, newest first": the reports connection with its
+ * status, category and date filters, against the same page read from a copy of the table in the
+ * previous schema (string timestamps, no index, UPPER() comparisons). Also "pending Roads reports
+ * by id", the same filters but the date range in orderBy: ID. Each run also prints the plan and
+ * scan count of the queries, which is where the difference comes from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportFilterBenchmark {
+
+    private static final String FIELDS = "id category status timestamp";
+    private static final int PAGE = 50;
+    private static final String FILTER = "status: PENDING, category: \"roads\", from: \"2025-04-01\", to: \"2025-05-01\"";
+    private static final String ID_FILTER = "status: PENDING, category: \"roads\"";
+    private static final String LEGACY_SQL = "SELECT * FROM legacy_reports "
+            + "WHERE UPPER(status) = 'PENDING' AND UPPER(category) = 'ROADS' "
+            + "AND timestamp >= '2025-04-01' AND timestamp < '2025-05-01' "
+            + "ORDER BY timestamp DESC, id DESC FETCH FIRST " + PAGE + " ROWS ONLY";
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private BenchmarkServer server;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        jdbc = server.bean(JdbcTemplate.class);
+        ReportDataset.generate(jdbc, rows, 42);
+        jdbc.execute("CREATE TABLE legacy_reports AS SELECT id, description, location, category, reporter_name, status, "
+                + "FORMATDATETIME(timestamp, 'yyyy-MM-dd HH:mm') AS timestamp FROM reports");
+        jdbc.execute("ANALYZE");
+        String indexed = "SELECT * FROM reports WHERE status = 'PENDING' AND category_key = 'ROADS' "
+                + "AND timestamp >= TIMESTAMP '2025-04-01 00:00:00' AND timestamp < TIMESTAMP '2025-05-01 00:00:00' "
+                + "ORDER BY category_key, timestamp DESC, id DESC FETCH FIRST " + PAGE + " ROWS ONLY";
+        String byId = "SELECT * FROM reports WHERE status = 'PENDING' AND category_key = 'ROADS' "
+                + "ORDER BY category_key, id FETCH FIRST " + PAGE + " ROWS ONLY";
+        System.out.println("\n[legacy plan]\n" + plan(LEGACY_SQL) + "\n[indexed plan]\n" + plan(indexed)
+                + "\n[by id plan]\n" + plan(byId));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public ExecutionResult filteredPage() {
+        return server.execute("{ reports(first: " + PAGE + ", orderBy: NEWEST, " + FILTER + ") { edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+
+    @Benchmark
+    public ExecutionResult filteredPageWithTotal() {
+        return server.execute("{ reports(first: " + PAGE + ", orderBy: NEWEST, " + FILTER + ") { totalCount edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+
+    @Benchmark
+    public ExecutionResult filteredPageById() {
+        return server.execute("{ reports(first: " + PAGE + ", orderBy: ID, " + ID_FILTER + ") { edges { cursor node { " + FIELDS + " } } pageInfo { hasNextPage endCursor } } }");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacyFilter() {
+        return jdbc.queryForList(LEGACY_SQL);
+    }
+
+    // EXPLAIN ANALYZE reports the rows each table access read ("scanCount")
+    private String plan(String sql) {
+        return jdbc.queryForObject("EXPLAIN ANALYZE " + sql, String.class);
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import java.time.LocalDateTime;
+
 @SpringBootApplication
 public class CitizenApplication {
 
@@ -25,7 +27,7 @@ public class CitizenApplication {
 			eventRepo.save(new Event(
 					"Festival International de Carthage",
 					"The biggest musical event in Africa.",
-					"2025-07-15 20:00",
+					LocalDateTime.of(2025, 7, 15, 20, 0),
 					"Amphithéâtre de Carthage",
 					"Culture",
 					"Ministry of Culture",
@@ -35,7 +37,7 @@ public class CitizenApplication {
 			eventRepo.save(new Event(
 					"Tunis Tech Summit 2025",
 					"Annual gathering of startups and innovators.",
-					"2025-05-20 09:00",
+					LocalDateTime.of(2025, 5, 20, 9, 0),
 					"Cité de la Culture, Tunis",
 					"Technology",
 					"Tunis Startups Association",
@@ -45,7 +47,7 @@ public class CitizenApplication {
 			eventRepo.save(new Event(
 					"Foire Internationale du Livre",
 					"Exhibition of books from around the world.",
-					"2025-04-25 10:00",
+					LocalDateTime.of(2025, 4, 25, 10, 0),
 					"Parc des Expositions du Kram",
 					"Literature",
 					"Ministry of Culture",
@@ -55,7 +57,7 @@ public class CitizenApplication {
 			eventRepo.save(new Event(
 					"Marathon COMAR",
 					"City marathon through Avenue Habib Bourguiba.",
-					"2025-10-12 08:00",
+					LocalDateTime.of(2025, 10, 12, 8, 0),
 					"Centre Ville, Tunis",
 					"Sports",
 					"COMAR Assurances",
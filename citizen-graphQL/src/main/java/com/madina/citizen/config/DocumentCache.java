@@ -0,0 +1,76 @@
+package com.madina.citizen.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Parsed and validated documents, so that a query sent again skips both steps (depth and
+ * complexity are still checked on every execution, they depend on the variables).
+ * <p>
+ * Also serves automatic persisted queries, Apollo's protocol: the client sends only
+ * extensions.persistedQuery.sha256Hash; on PersistedQueryNotFound it sends the query with the
+ * hash once, and the hash alone works from then on. The hash is checked against the query.
+ * <p>
+ * Documents that fail to parse or validate are not cached.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size with cache="graphql.documents"
+ * and cache="graphql.persisted-queries".
+ */
+@Component
+public class DocumentCache implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final Cache<Object, PreparsedDocumentEntry> persisted;
+    private final PersistedQuerySupport persistedQueries;
+
+    public DocumentCache(GraphQlLimitsProperties properties, MeterRegistry registry) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(properties.getDocumentCacheSize())
+                .recordStats()
+                .build();
+        this.persisted = Caffeine.newBuilder()
+                .maximumSize(properties.getPersistedQueryCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, documents, "graphql.documents");
+        CaffeineCacheMetrics.monitor(registry, persisted, "graphql.persisted-queries");
+        this.persistedQueries = new ApolloPersistedQuerySupport(this::persistedDocument);
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput input, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        // Without a persisted query hash, goes straight to the cache by query text
+        return persistedQueries.getDocument(input, in -> cached(documents, in.getQuery(), () -> parseAndValidate.apply(in)));
+    }
+
+    private PreparsedDocumentEntry persistedDocument(Object hash, ExecutionInput input, PersistedQueryCacheMiss miss) {
+        String query = input.getQuery();
+        // No query (see PersistedQueryRequestFilter): only a known hash can be answered, else the miss reports PersistedQueryNotFound
+        String text = PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query) ? null : query;
+        return cached(persisted, hash, () -> miss.apply(text));
+    }
+
+    private static <K> PreparsedDocumentEntry cached(Cache<K, PreparsedDocumentEntry> cache, K key,
+                                                     Supplier<PreparsedDocumentEntry> load) {
+        PreparsedDocumentEntry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            // Two requests may both parse the same new document: cheaper than making one wait
+            entry = load.get();
+            if (!entry.hasErrors()) {
+                cache.put(key, entry);
+            }
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,73 @@
+package com.madina.citizen.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorEncoder;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.graphql.data.pagination.EncodingCursorStrategy;
+import org.springframework.graphql.data.query.JsonKeysetCursorStrategy;
+import org.springframework.graphql.data.query.ScrollPositionCursorStrategy;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(GraphQlLimitsProperties.class)
+public class GraphQlConfig {
+
+    // Parsed documents and persisted queries come from the cache
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(DocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+
+    // Both checks run before any resolver, and reject the whole operation.
+    // Rejections are counted in graphql.requests.rejected{reason=depth|complexity}.
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepth(GraphQlLimitsProperties properties, MeterRegistry registry) {
+        return new MaxQueryDepthInstrumentation(properties.getMaxDepth(),
+                info -> rejected(registry, "depth"));
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexity(GraphQlLimitsProperties properties, MeterRegistry registry) {
+        int max = properties.getMaxComplexity() > 0 ? properties.getMaxComplexity() : Integer.MAX_VALUE;
+        return new MaxQueryComplexityInstrumentation(max, new QueryComplexity(properties.getListSizeEstimate()),
+                info -> rejected(registry, "complexity"));
+    }
+
+    private static boolean rejected(MeterRegistry registry, String reason) {
+        registry.counter("graphql.requests.rejected", "reason", reason).increment();
+        return true;
+    }
+
+    // Cursors of the connections: the keyset values as typed JSON, base64 encoded. Cursors come
+    // from clients, so only the types of the keys (ids and timestamps) may be read back from them.
+    @Bean
+    public EncodingCursorStrategy<ScrollPosition> cursorStrategy() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                .allowIfBaseType(Map.class)
+                .allowIfSubType(Long.class)
+                .allowIfSubType(Integer.class)
+                .allowIfSubType(LocalDateTime.class)
+                .build(), ObjectMapper.DefaultTyping.NON_FINAL);
+        ServerCodecConfigurer codecs = ServerCodecConfigurer.create();
+        codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+        codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+        return CursorStrategy.withEncoder(
+                new ScrollPositionCursorStrategy(new JsonKeysetCursorStrategy(codecs)), CursorEncoder.base64());
+    }
+}
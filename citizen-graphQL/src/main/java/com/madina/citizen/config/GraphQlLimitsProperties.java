@@ -0,0 +1,32 @@
+package com.madina.citizen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Document caches and query budget of the GraphQL endpoint (prefix "citizen.graphql"),
+ * see DocumentCache and QueryComplexity.
+ */
+@Data
+@ConfigurationProperties(prefix = "citizen.graphql")
+public class GraphQlLimitsProperties {
+
+    // Parsed and validated documents kept, by query text
+    private long documentCacheSize = 1_000;
+
+    // Persisted queries kept, by hash; a client whose hash was evicted just sends the query again
+    private long persistedQueryCacheSize = 10_000;
+
+    // Deepest selection accepted. GraphiQL's introspection query is 13 deep.
+    private int maxDepth = 15;
+
+    // Highest complexity accepted (0 = no limit). A full page of 100 reports with every field is about 1,000.
+    private int maxComplexity = 2_000;
+
+    // Length assumed for lists that are not paged (getAllReports, getEventsByCategory...)
+    private int listSizeEstimate = 100;
+
+    // Largest POST /graphql body accepted, larger ones get 413. GraphiQL's introspection query is about 2KB.
+    private DataSize maxRequestSize = DataSize.ofKilobytes(64);
+}
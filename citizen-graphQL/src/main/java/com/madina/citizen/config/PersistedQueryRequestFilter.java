@@ -0,0 +1,158 @@
+package com.madina.citizen.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A persisted query request carries the hash and no query, which the GraphQL HTTP handler refuses
+ * ("Invalid value for 'query'") before DocumentCache gets to look the hash up. For such requests,
+ * fills the query in with graphql-java's placeholder for "no query text". Other requests pass
+ * through untouched.
+ * <p>
+ * The body has to be read to tell, so it is held in memory: bodies over maxRequestSize are
+ * refused with 413 before or while reading, whatever their declared length.
+ */
+@Component
+public class PersistedQueryRequestFilter extends OncePerRequestFilter {
+
+    private static final byte[] PERSISTED_QUERY = "\"persistedQuery\"".getBytes(StandardCharsets.UTF_8);
+
+    private final String path;
+    private final ObjectMapper mapper;
+    private final int maxRequestSize;
+
+    public PersistedQueryRequestFilter(@Value("${spring.graphql.path:/graphql}") String path, ObjectMapper mapper,
+                                       GraphQlLimitsProperties properties) {
+        this.path = path;
+        this.mapper = mapper;
+        this.maxRequestSize = Math.toIntExact(properties.getMaxRequestSize().toBytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !path.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getContentLengthLong() > maxRequestSize) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        // One byte more than allowed tells a body that is too long, without a declared length
+        byte[] body = request.getInputStream().readNBytes(maxRequestSize + 1);
+        if (body.length > maxRequestSize) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        // Only parse the bodies that can be persisted queries
+        if (contains(body, PERSISTED_QUERY)) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> document = mapper.readValue(body, Map.class);
+            if (!(document.get("query") instanceof String query) || query.isBlank()) {
+                document.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+                body = mapper.writeValueAsBytes(document);
+            }
+        }
+        chain.doFilter(new BodyRequest(request, body), response);
+    }
+
+    private static boolean contains(byte[] body, byte[] bytes) {
+        for (int i = 0; i <= body.length - bytes.length; i++) {
+            int j = 0;
+            while (j < bytes.length && body[i + j] == bytes[j]) {
+                j++;
+            }
+            if (j == bytes.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The request with its body already read
+    private static final class BodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is in memory already: the data is available, and can be read in full, right away
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.madina.citizen.config;
+
+import com.madina.citizen.controller.CitizenController;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+/**
+ * Cost of a query, roughly the number of values it returns: each field costs 1, and the fields
+ * under a list cost once per element. The edges of a connection have `first` elements (default
+ * and cap as in CitizenController); other lists are assumed to have listSizeEstimate elements.
+ * Introspection fields cost 1 whatever their type, so that GraphiQL keeps working: their size is
+ * bounded by the schema, and the depth limit bounds how far they can be nested.
+ */
+class QueryComplexity implements FieldComplexityCalculator {
+
+    private final int listSizeEstimate;
+
+    QueryComplexity(int listSizeEstimate) {
+        this.listSizeEstimate = listSizeEstimate;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment env, int childComplexity) {
+        if (env.getParentType().getName().startsWith("__") || env.getFieldDefinition().getName().startsWith("__")) {
+            return 1 + childComplexity;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType());
+        if (!(type instanceof GraphQLList)) {
+            return 1 + childComplexity;
+        }
+        long size = "edges".equals(env.getField().getName()) && env.getParentEnvironment() != null
+                ? pageSize(env.getParentEnvironment().getArguments().get("first"))
+                : listSizeEstimate;
+        // Saturates instead of overflowing, which would turn a huge query into a negative cost
+        return (int) Math.min(Integer.MAX_VALUE, 1 + size * childComplexity);
+    }
+
+    private static int pageSize(Object first) {
+        return first instanceof Integer n
+                ? Math.max(0, Math.min(n, CitizenController.MAX_PAGE_SIZE))
+                : CitizenController.DEFAULT_PAGE_SIZE;
+    }
+}
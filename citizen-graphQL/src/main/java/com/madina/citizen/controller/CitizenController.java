@@ -1,26 +1,62 @@
 package com.madina.citizen.controller;
 
+import com.madina.citizen.model.Categories;
 import com.madina.citizen.model.Event;
 import com.madina.citizen.model.Report;
+import com.madina.citizen.model.ReportStatus;
+import com.madina.citizen.model.ReportStatusChange;
+import com.madina.citizen.repository.EventQuery;
 import com.madina.citizen.repository.EventRepository;
+import com.madina.citizen.repository.ReportQuery;
 import com.madina.citizen.repository.ReportRepository;
+import com.madina.citizen.service.ReportEventBus;
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Controller
 public class CitizenController {
 
+    // Page size of the connections when `first` is not given, and the largest page they return
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // How dates are shown to clients (and accepted in filters, besides ISO-8601)
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public enum ReportOrder { ID, NEWEST }
+
+    public enum EventOrder { ID, DATE }
+
     private final EventRepository eventRepository;
     private final ReportRepository reportRepository;
+    private final ReportEventBus reportEvents;
 
-    public CitizenController(EventRepository eventRepository, ReportRepository reportRepository) {
+    public CitizenController(EventRepository eventRepository, ReportRepository reportRepository, ReportEventBus reportEvents) {
         this.eventRepository = eventRepository;
         this.reportRepository = reportRepository;
+        this.reportEvents = reportEvents;
     }
 
     // --- QUERIES ---
@@ -30,6 +66,38 @@ public class CitizenController {
         return eventRepository.findAll();
     }
 
+    // Relay connection: each page is one indexed range read, however deep the client pages
+    @QueryMapping
+    public Window<Event> events(ScrollSubrange subrange, @Argument EventOrder orderBy,
+                                @Argument String category, @Argument String from, @Argument String to) {
+        EventQuery query = eventQuery(orderBy, category, from, to);
+        Map<String, Object> after = keys(subrange);
+        int limit = limit(subrange);
+        List<Event> rows = eventRepository.findBy(
+                query.toSpecification(time(after, "date", query.byDate()), id(after)), q -> q.limit(limit + 1).all());
+        return window(rows, limit, query.byDate()
+                ? e -> Map.of("date", e.getDate(), "id", e.getId())
+                : e -> Map.of("id", e.getId()));
+    }
+
+    // Row count estimate of the table when unfiltered, else a count of the matching index range.
+    // The filters are read again from the arguments of the connection field: a local context set by
+    // events would not get here, the observation instrumentation replaces it.
+    @SchemaMapping(typeName = "EventConnection", field = "totalCount")
+    public Integer eventCount(DataFetchingEnvironment env) {
+        Map<String, Object> arguments = connectionArguments(env);
+        EventQuery query;
+        try {
+            query = eventQuery(null, (String) arguments.get("category"),
+                    (String) arguments.get("from"), (String) arguments.get("to"));
+        } catch (IllegalArgumentException e) {
+            return null; // Already reported by events
+        }
+        return Math.toIntExact(query.isFiltered()
+                ? eventRepository.count(query.toSpecification(null, null))
+                : eventRepository.estimateCount());
+    }
+
     @QueryMapping
     public Event getEventById(@Argument Long id) {
         return eventRepository.findById(id).orElse(null);
@@ -37,7 +105,7 @@ public class CitizenController {
 
     @QueryMapping
     public List<Event> getEventsByCategory(@Argument String category) {
-        return eventRepository.findByCategoryIgnoreCase(category);
+        return eventRepository.findByCategoryKey(Categories.key(category));
     }
 
     @QueryMapping
@@ -45,6 +113,36 @@ public class CitizenController {
         return reportRepository.findAll();
     }
 
+    @QueryMapping
+    public Window<Report> reports(ScrollSubrange subrange, @Argument ReportOrder orderBy,
+                                  @Argument ReportStatus status, @Argument String category,
+                                  @Argument String from, @Argument String to) {
+        ReportQuery query = reportQuery(orderBy, status, category, from, to);
+        Map<String, Object> after = keys(subrange);
+        int limit = limit(subrange);
+        List<Report> rows = reportRepository.findBy(
+                query.toSpecification(time(after, "timestamp", query.newestFirst()), id(after)), q -> q.limit(limit + 1).all());
+        return window(rows, limit, query.newestFirst()
+                ? r -> Map.of("timestamp", r.getTimestamp(), "id", r.getId())
+                : r -> Map.of("id", r.getId()));
+    }
+
+    @SchemaMapping(typeName = "ReportConnection", field = "totalCount")
+    public Integer reportCount(DataFetchingEnvironment env) {
+        Map<String, Object> arguments = connectionArguments(env);
+        Object status = arguments.get("status");
+        ReportQuery query;
+        try {
+            query = reportQuery(null, status == null ? null : ReportStatus.valueOf(status.toString()),
+                    (String) arguments.get("category"), (String) arguments.get("from"), (String) arguments.get("to"));
+        } catch (IllegalArgumentException e) {
+            return null; // Already reported by reports
+        }
+        return Math.toIntExact(query.isFiltered()
+                ? reportRepository.count(query.toSpecification(null, null))
+                : reportRepository.estimateCount());
+    }
+
     @QueryMapping
     public Report getReportById(@Argument Long id) {
         return reportRepository.findById(id).orElse(null);
@@ -52,7 +150,24 @@ public class CitizenController {
 
     @QueryMapping
     public List<Report> getReportsByStatus(@Argument String status) {
-        return reportRepository.findByStatusIgnoreCase(status);
+        ReportStatus parsed;
+        try {
+            parsed = ReportStatus.parse(status);
+        } catch (IllegalArgumentException e) {
+            return List.of(); // No report can have it
+        }
+        return reportRepository.findByStatus(parsed);
+    }
+
+    // Dates keep the format they always had in the API, now that they are stored as timestamps
+    @SchemaMapping(typeName = "Report", field = "timestamp")
+    public String timestamp(Report report) {
+        return report.getTimestamp().format(DISPLAY_FORMAT);
+    }
+
+    @SchemaMapping(typeName = "Event", field = "date")
+    public String date(Event event) {
+        return event.getDate().format(DISPLAY_FORMAT);
     }
 
     // --- MUTATIONS ---
@@ -60,27 +175,150 @@ public class CitizenController {
     @MutationMapping
     public Report createReport(@Argument String description, @Argument String location,
                                @Argument String category, @Argument String reporterName) {
-        Report report = new Report(description, location, category, reporterName);
-        return reportRepository.save(report);
+        Report report = reportRepository.save(new Report(description, location, category, reporterName));
+        reportEvents.reportCreated(report);
+        return report;
     }
 
     @MutationMapping
     public Report updateReportStatus(@Argument Long id, @Argument String status) {
+        ReportStatus next = ReportStatus.parse(status);
         Optional<Report> optionalReport = reportRepository.findById(id);
         if (optionalReport.isPresent()) {
             Report report = optionalReport.get();
-            report.setStatus(status);
-            return reportRepository.save(report);
+            ReportStatus previous = report.getStatus();
+            report.setStatus(next);
+            Report saved = reportRepository.save(report);
+            reportEvents.reportStatusChanged(new ReportStatusChange(saved, previous, false));
+            return saved;
         }
         return null; // Handle error gracefully in real app
     }
 
     @MutationMapping
     public Boolean deleteReport(@Argument Long id) {
-        if (reportRepository.existsById(id)) {
-            reportRepository.deleteById(id);
+        Optional<Report> report = reportRepository.findById(id);
+        if (report.isPresent()) {
+            reportRepository.delete(report.get());
+            reportEvents.reportStatusChanged(new ReportStatusChange(report.get(), report.get().getStatus(), true));
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+
+    // --- SUBSCRIPTIONS ---
+
+    @SubscriptionMapping
+    public Flux<Report> reportCreated(@Argument String category, @Argument String location) {
+        return reportEvents.reportsCreated(category, location);
+    }
+
+    @SubscriptionMapping
+    public Flux<ReportStatusChange> reportStatusChanged(@Argument String category, @Argument String location) {
+        return reportEvents.statusChanges(category, location);
+    }
+
+    // Invalid arguments (page size, cursor, status, dates): the client's error, not an INTERNAL_ERROR
+    @GraphQlExceptionHandler
+    public GraphQLError handleBadArgument(IllegalArgumentException e) {
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message(e.getMessage()).build();
+    }
+
+    // --- PAGINATION ---
+
+    // No orderBy: by time when filtered (every filter has an index in that order), else by id
+    private static EventQuery eventQuery(EventOrder orderBy, String category, String from, String to) {
+        String categoryKey = Categories.key(category);
+        LocalDateTime since = parseTime(from, "from"), until = parseTime(to, "to");
+        boolean filtered = categoryKey != null || since != null || until != null;
+        return new EventQuery(categoryKey, since, until, orderBy == null ? filtered : orderBy == EventOrder.DATE);
+    }
+
+    private static ReportQuery reportQuery(ReportOrder orderBy, ReportStatus status, String category, String from, String to) {
+        String categoryKey = Categories.key(category);
+        LocalDateTime since = parseTime(from, "from"), until = parseTime(to, "to");
+        boolean filtered = status != null || categoryKey != null || since != null || until != null;
+        return new ReportQuery(status, categoryKey, since, until, orderBy == null ? filtered : orderBy == ReportOrder.NEWEST);
+    }
+
+    // Arguments of the events / reports field, seen from a field of the connection it returned
+    private static Map<String, Object> connectionArguments(DataFetchingEnvironment env) {
+        return env.getExecutionStepInfo().getParent().getArguments();
+    }
+
+    // Keys of the `after` cursor, empty for the first page
+    private static Map<String, Object> keys(ScrollSubrange subrange) {
+        Optional<ScrollPosition> position = subrange.position();
+        if (position.isEmpty() || position.get().isInitial()) {
+            return Map.of();
+        }
+        if (position.get() instanceof KeysetScrollPosition keyset) {
+            return keyset.getKeys();
+        }
+        throw new IllegalArgumentException("after is not a cursor of this connection");
+    }
+
+    private static Long id(Map<String, Object> keys) {
+        Object id = keys.get("id");
+        if (id == null) {
+            return null;
+        }
+        if (!(id instanceof Number number)) {
+            throw new IllegalArgumentException("after is not a cursor of this connection");
+        }
+        return number.longValue();
+    }
+
+    // Cursor key of a by-time order. A cursor of the other orderBy lacks it, or has it while
+    // the order is by id: read with the wrong order, it would silently skip or repeat rows.
+    private static LocalDateTime time(Map<String, Object> keys, String key, boolean ordered) {
+        if (keys.isEmpty()) {
+            return null;
+        }
+        Object value = keys.get(key);
+        if (ordered == (value == null) || !keys.containsKey("id")) {
+            throw new IllegalArgumentException("after is not a cursor of this orderBy");
+        }
+        if (!ordered) {
+            return null;
+        }
+        if (value instanceof LocalDateTime time) {
+            return time;
+        }
+        try {
+            return LocalDateTime.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("after is not a cursor of this connection");
+        }
+    }
+
+    private static int limit(ScrollSubrange subrange) {
+        int first = subrange.count().orElse(DEFAULT_PAGE_SIZE);
+        if (first < 0) {
+            throw new IllegalArgumentException("first must be >= 0");
+        }
+        return Math.min(first, MAX_PAGE_SIZE);
+    }
+
+    // `rows` holds up to limit + 1 rows: the extra one only tells that there is a next page
+    private static <T> Window<T> window(List<T> rows, int limit, Function<T, Map<String, Object>> keys) {
+        boolean hasNext = rows.size() > limit;
+        List<T> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, i -> ScrollPosition.forward(keys.apply(page.get(i))), hasNext);
+    }
+
+    // "2025-05-01", "2025-05-01 10:00" or ISO "2025-05-01T10:00"; null = no bound
+    private static LocalDateTime parseTime(String value, String argument) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return value.charAt(10) == 'T' ? LocalDateTime.parse(value) : LocalDateTime.parse(value, DISPLAY_FORMAT);
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(argument + " must be a date (2025-05-01) or date-time (2025-05-01 10:00)");
+        }
+    }
+}
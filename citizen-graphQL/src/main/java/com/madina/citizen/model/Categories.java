@@ -0,0 +1,14 @@
+package com.madina.citizen.model;
+
+import java.util.Locale;
+
+// Categories are free text ("Roads", "roads ", "ROADS"...). Each row also stores the normalized
+// key, so that case-insensitive filters are a plain indexed equality instead of UPPER(category) = ?
+public final class Categories {
+
+    private Categories() {}
+
+    public static String key(String category) {
+        return category == null ? null : category.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,29 +1,38 @@
 package com.madina.citizen.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+// Listings, alone or with a category filter, by date or by id (see Report)
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_date", columnList = "date, id"),
+        @Index(name = "idx_events_category_date", columnList = "category_key, date, id"),
+        @Index(name = "idx_events_category_id", columnList = "category_key, id")})
 public class Event {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String title;
     private String description;
-    private String date;
+    @Column(nullable = false)
+    private LocalDateTime date;
     private String location;
     private String category;
+    @Column(name = "category_key")
+    private String categoryKey;
     private String organizer;
     private Boolean isFree;
 
     public Event() {}
 
-    public Event(String title, String description, String date, String location, String category, String organizer, Boolean isFree) {
+    public Event(String title, String description, LocalDateTime date, String location, String category, String organizer, Boolean isFree) {
         this.title = title;
         this.description = description;
         this.date = date;
         this.location = location;
         this.category = category;
+        this.categoryKey = Categories.key(category);
         this.organizer = organizer;
         this.isFree = isFree;
     }
@@ -32,9 +41,10 @@ public class Event {
     public Long getId() { return id; }
     public String getTitle() { return title; }
     public String getDescription() { return description; }
-    public String getDate() { return date; }
+    public LocalDateTime getDate() { return date; }
     public String getLocation() { return location; }
     public String getCategory() { return category; }
+    public String getCategoryKey() { return categoryKey; }
     public String getOrganizer() { return organizer; }
     public Boolean getIsFree() { return isFree; }
-}
\ No newline at end of file
+}
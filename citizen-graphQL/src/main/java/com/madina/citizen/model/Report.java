@@ -2,10 +2,18 @@ package com.madina.citizen.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "reports")
+// Listings, alone or with a status or category filter, newest first or by id (see ReportQuery).
+// Declared in the order they are read: H2 only range-scans an index forwards, and only skips the
+// sort when the ORDER BY matches it. By id alone, the primary key is the index.
+@Table(name = "reports", indexes = {
+        @Index(name = "idx_reports_newest", columnList = "timestamp DESC, id DESC"),
+        @Index(name = "idx_reports_status_newest", columnList = "status, timestamp DESC, id DESC"),
+        @Index(name = "idx_reports_category_newest", columnList = "category_key, timestamp DESC, id DESC"),
+        @Index(name = "idx_reports_status_id", columnList = "status, id"),
+        @Index(name = "idx_reports_category_id", columnList = "category_key, id")})
 public class Report {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -13,9 +21,14 @@ public class Report {
     private String description;
     private String location;
     private String category;
+    @Column(name = "category_key")
+    private String categoryKey;
     private String reporterName;
-    private String status;
-    private String timestamp;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportStatus status;
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
 
     public Report() {}
 
@@ -23,13 +36,15 @@ public class Report {
         this.description = description;
         this.location = location;
         this.category = category;
+        this.categoryKey = Categories.key(category);
         this.reporterName = reporterName;
-        this.status = "PENDING";
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        this.status = ReportStatus.PENDING;
+        // Minute precision, as reports have always been shown
+        this.timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
     }
 
     // Setters for updates
-    public void setStatus(String status) {
+    public void setStatus(ReportStatus status) {
         this.status = status;
     }
 
@@ -38,7 +53,8 @@ public class Report {
     public String getDescription() { return description; }
     public String getLocation() { return location; }
     public String getCategory() { return category; }
+    public String getCategoryKey() { return categoryKey; }
     public String getReporterName() { return reporterName; }
-    public String getStatus() { return status; }
-    public String getTimestamp() { return timestamp; }
-}
\ No newline at end of file
+    public ReportStatus getStatus() { return status; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,21 @@
+package com.madina.citizen.model;
+
+import java.util.Locale;
+
+public enum ReportStatus {
+    PENDING,
+    IN_PROGRESS,
+    RESOLVED;
+
+    /**
+     * Status named by a client, in any case ("resolved", "Resolved"...).
+     * @throws IllegalArgumentException if there is no such status
+     */
+    public static ReportStatus parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status " + name + ", expected one of PENDING, IN_PROGRESS, RESOLVED");
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.madina.citizen.model;
+
+// Pushed to reportStatusChanged subscribers: the report after the change, or as it was when deleted
+public record ReportStatusChange(Report report, ReportStatus previousStatus, boolean deleted) {
+}
@@ -0,0 +1,72 @@
+package com.madina.citizen.repository;
+
+import com.madina.citizen.model.Event;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the events connection: optional category / [from, until) filters, by date (earliest
+ * first) or by id. Shaped for the indexes declared on Event, see ReportQuery.
+ *
+ * @param categoryKey see Categories.key, null = any category
+ * @param from        inclusive lower bound, null = none
+ * @param until       exclusive upper bound, null = none
+ */
+public record EventQuery(String categoryKey, LocalDateTime from, LocalDateTime until, boolean byDate) {
+
+    public boolean isFiltered() {
+        return categoryKey != null || from != null || until != null;
+    }
+
+    /**
+     * Rows of this listing, strictly after the given position: (afterDate, afterId) by date,
+     * afterId by id. Null = from the start.
+     */
+    public Specification<Event> toSpecification(LocalDateTime afterDate, Long afterId) {
+        return (root, query, cb) -> {
+            query.orderBy(order(root, cb));
+            List<Predicate> predicates = new ArrayList<>(5);
+            if (categoryKey != null) {
+                predicates.add(cb.equal(root.get("categoryKey"), categoryKey));
+            }
+            Path<LocalDateTime> date = root.get("date");
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(date, from));
+            }
+            if (until != null) {
+                predicates.add(cb.lessThan(date, until));
+            }
+            if (afterId != null) {
+                Path<Long> id = root.get("id");
+                if (!byDate) {
+                    predicates.add(cb.greaterThan(id, afterId));
+                } else if (afterDate != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(date, afterDate));
+                    predicates.add(cb.or(cb.greaterThan(date, afterDate),
+                            cb.and(cb.equal(date, afterDate), cb.greaterThan(id, afterId))));
+                }
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private List<Order> order(Root<Event> root, CriteriaBuilder cb) {
+        List<Order> order = new ArrayList<>(3);
+        if (categoryKey != null) {
+            order.add(cb.asc(root.get("categoryKey")));
+        }
+        if (byDate) {
+            order.add(cb.asc(root.get("date")));
+        }
+        order.add(cb.asc(root.get("id")));
+        return order;
+    }
+}
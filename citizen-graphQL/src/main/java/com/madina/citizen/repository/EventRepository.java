@@ -2,8 +2,13 @@ package com.madina.citizen.repository;
 
 import com.madina.citizen.model.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
-    List<Event> findByCategoryIgnoreCase(String category);
-}
\ No newline at end of file
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+    List<Event> findByCategoryKey(String categoryKey);
+
+    @Query(value = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'EVENTS'", nativeQuery = true)
+    long estimateCount();
+}
@@ -0,0 +1,94 @@
+package com.madina.citizen.repository;
+
+import com.madina.citizen.model.Report;
+import com.madina.citizen.model.ReportStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the reports connection: optional status / category / [from, until) filters, newest
+ * first or by id.
+ * <p>
+ * The SQL is shaped so that H2 reads the page straight from the indexes declared on Report:
+ * <ul>
+ *   <li>only the filters that are set appear in the WHERE clause;</li>
+ *   <li>the ORDER BY starts with the column filtered by equality (category when given, being the
+ *   more selective, else status), since H2 only skips the sort when the ORDER BY matches an index's
+ *   leading columns and directions exactly;</li>
+ *   <li>the keyset condition carries a plain range bound on timestamp, since the OR alone forces a scan.</li>
+ * </ul>
+ * By id, a from / until range has no index of its own: the rows are read by id and the range is
+ * checked on each of them, which is why the connections list newest first when filtered.
+ *
+ * @param status      null = any status
+ * @param categoryKey see Categories.key, null = any category
+ * @param from        inclusive lower bound, null = none
+ * @param until       exclusive upper bound, null = none
+ */
+public record ReportQuery(ReportStatus status, String categoryKey, LocalDateTime from, LocalDateTime until,
+                          boolean newestFirst) {
+
+    public boolean isFiltered() {
+        return status != null || categoryKey != null || from != null || until != null;
+    }
+
+    /**
+     * Rows of this listing, strictly after the given position: (afterTimestamp, afterId) newest
+     * first, afterId by id. Null = from the start.
+     */
+    public Specification<Report> toSpecification(LocalDateTime afterTimestamp, Long afterId) {
+        return (root, query, cb) -> {
+            query.orderBy(order(root, cb));
+            List<Predicate> predicates = new ArrayList<>(6);
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (categoryKey != null) {
+                predicates.add(cb.equal(root.get("categoryKey"), categoryKey));
+            }
+            Path<LocalDateTime> timestamp = root.get("timestamp");
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(timestamp, from));
+            }
+            if (until != null) {
+                predicates.add(cb.lessThan(timestamp, until));
+            }
+            if (afterId != null) {
+                Path<Long> id = root.get("id");
+                if (!newestFirst) {
+                    predicates.add(cb.greaterThan(id, afterId));
+                } else if (afterTimestamp != null) {
+                    predicates.add(cb.lessThanOrEqualTo(timestamp, afterTimestamp));
+                    predicates.add(cb.or(cb.lessThan(timestamp, afterTimestamp),
+                            cb.and(cb.equal(timestamp, afterTimestamp), cb.lessThan(id, afterId))));
+                }
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private List<Order> order(Root<Report> root, CriteriaBuilder cb) {
+        List<Order> order = new ArrayList<>(3);
+        // Constant within the result, so it doesn't change it; it only lets H2 match the index
+        if (categoryKey != null) {
+            order.add(cb.asc(root.get("categoryKey")));
+        } else if (status != null) {
+            order.add(cb.asc(root.get("status")));
+        }
+        if (newestFirst) {
+            order.add(cb.desc(root.get("timestamp")));
+            order.add(cb.desc(root.get("id")));
+        } else {
+            order.add(cb.asc(root.get("id")));
+        }
+        return order;
+    }
+}
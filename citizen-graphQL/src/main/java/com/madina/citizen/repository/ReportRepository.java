@@ -1,9 +1,16 @@
 package com.madina.citizen.repository;
 
 import com.madina.citizen.model.Report;
+import com.madina.citizen.model.ReportStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
-public interface ReportRepository extends JpaRepository<Report, Long> {
-    List<Report> findByStatusIgnoreCase(String status);
-}
\ No newline at end of file
+public interface ReportRepository extends JpaRepository<Report, Long>, JpaSpecificationExecutor<Report> {
+    List<Report> findByStatus(ReportStatus status);
+
+    // H2 keeps the row count of each table: no scan, unlike count()
+    @Query(value = "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'REPORTS'", nativeQuery = true)
+    long estimateCount();
+}
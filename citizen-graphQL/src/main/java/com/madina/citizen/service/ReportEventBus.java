@@ -0,0 +1,93 @@
+package com.madina.citizen.service;
+
+import com.madina.citizen.model.Categories;
+import com.madina.citizen.model.Report;
+import com.madina.citizen.model.ReportStatusChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory fan-out of report changes to the GraphQL subscriptions.
+ * <p>
+ * Publishers never wait for subscribers: a change is only put in each subscription's buffer, and
+ * the subscriptions run their GraphQL execution on their own threads. Each buffer is bounded: a
+ * client that reads too slowly loses its oldest pending changes (counted in
+ * graphql.subscriptions.dropped) instead of growing the heap or slowing down the others.
+ * Nothing is replayed to a client that subscribes later. Publish only after the change has committed.
+ * Open subscriptions: graphql.subscriptions.active.
+ */
+@Component
+public class ReportEventBus {
+
+    // Best effort: a subscriber is skipped if it has no demand, which never happens since its buffer always asks for more
+    private final Sinks.Many<Report> created = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Many<ReportStatusChange> statusChanged = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final Counter dropped;
+
+    public ReportEventBus(@Value("${citizen.subscriptions.buffer-size:256}") int bufferSize, MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.dropped = registry.counter("graphql.subscriptions.dropped");
+        Gauge.builder("graphql.subscriptions.active", this, ReportEventBus::subscriberCount).register(registry);
+    }
+
+    // A sink takes one emission at a time
+    public synchronized void reportCreated(Report report) {
+        created.tryEmitNext(report);
+    }
+
+    public synchronized void reportStatusChanged(ReportStatusChange change) {
+        statusChanged.tryEmitNext(change);
+    }
+
+    /** New reports matching the filters (null = any), see Subscription.reportCreated. */
+    public Flux<Report> reportsCreated(String category, String location) {
+        return subscribe(created, matching(category, location, Function.identity()));
+    }
+
+    public Flux<ReportStatusChange> statusChanges(String category, String location) {
+        return subscribe(statusChanged, matching(category, location, ReportStatusChange::report));
+    }
+
+    public int subscriberCount() {
+        return created.currentSubscriberCount() + statusChanged.currentSubscriberCount();
+    }
+
+    // Completes the subscriptions, so that clients see the end of the stream rather than a dropped connection
+    @PreDestroy
+    public synchronized void shutdown() {
+        created.tryEmitComplete();
+        statusChanged.tryEmitComplete();
+    }
+
+    private <T> Flux<T> subscribe(Sinks.Many<T> sink, Predicate<T> filter) {
+        return sink.asFlux()
+                .filter(filter)
+                .onBackpressureBuffer(bufferSize, change -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                // One at a time, so that the changes wait in the bounded buffer rather than in publishOn's queue
+                .publishOn(Schedulers.parallel(), 1);
+    }
+
+    // Category as in the queries (Categories.key); location: any part of it, ignoring case
+    private static <T> Predicate<T> matching(String category, String location, Function<T, Report> report) {
+        String key = Categories.key(category);
+        String place = location == null || location.isBlank() ? null : location.trim().toLowerCase(Locale.ROOT);
+        return change -> {
+            Report r = report.apply(change);
+            return (key == null || key.equals(r.getCategoryKey()))
+                    && (place == null || (r.getLocation() != null && r.getLocation().toLowerCase(Locale.ROOT).contains(place)));
+        };
+    }
+}
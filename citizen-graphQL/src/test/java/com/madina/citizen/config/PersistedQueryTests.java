@@ -0,0 +1,98 @@
+package com.madina.citizen.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Automatic persisted queries over POST /graphql, and the request size limit (see PersistedQueryRequestFilter)
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersistedQueryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private GraphQlLimitsProperties limits;
+
+	@Test
+	void unknownHashIsAMiss() throws Exception {
+		String query = "{ getReportById(id: 9000001) { id } }";
+
+		graphQl(persisted(null, sha256(query)))
+				.andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+	}
+
+	@Test
+	void hashAloneWorksOnceTheQueryWasSent() throws Exception {
+		String query = "{ getReportById(id: 9000002) { id } }";
+		String hash = sha256(query);
+
+		graphQl(persisted(query, hash))
+				.andExpect(jsonPath("$.errors").doesNotExist())
+				.andExpect(jsonPath("$.data.getReportById").value(nullValue()));
+		graphQl(persisted(null, hash))
+				.andExpect(jsonPath("$.errors").doesNotExist())
+				.andExpect(jsonPath("$.data.getReportById").value(nullValue()));
+	}
+
+	@Test
+	void hashOfAnotherQueryIsRejected() throws Exception {
+		String query = "{ getReportById(id: 9000003) { id } }";
+
+		graphQl(persisted(query, sha256("{ getReportById(id: 9000004) { id } }")))
+				.andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"));
+	}
+
+	@Test
+	void plainQueryPassesThrough() throws Exception {
+		graphQl("{\"query\": \"{ getReportById(id: 9000005) { id } }\"}")
+				.andExpect(jsonPath("$.errors").doesNotExist());
+	}
+
+	@Test
+	void bodyOverTheLimitIsRefused() throws Exception {
+		String padding = " ".repeat(Math.toIntExact(limits.getMaxRequestSize().toBytes()));
+
+		mockMvc.perform(post("/graphql")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"query\": \"{ getAllEvents { id } }" + padding + "\"}"))
+				.andExpect(status().isPayloadTooLarge());
+	}
+
+	private ResultActions graphQl(String body) throws Exception {
+		MvcResult result = mockMvc.perform(post("/graphql")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+	}
+
+	private static String persisted(String query, String hash) {
+		String extensions = "\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"" + hash + "\"}}";
+		return query == null ? "{" + extensions + "}" : "{\"query\": \"" + query + "\", " + extensions + "}";
+	}
+
+	private static String sha256(String query) throws NoSuchAlgorithmException {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest);
+	}
+}
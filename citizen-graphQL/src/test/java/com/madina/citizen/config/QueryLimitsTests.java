@@ -0,0 +1,82 @@
+package com.madina.citizen.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Depth and complexity budget of a query (see GraphQlLimitsProperties)
+@SpringBootTest
+@AutoConfigureGraphQlTester
+class QueryLimitsTests {
+
+	private static final String REPORT_FIELDS = "id description location category reporterName status timestamp";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private GraphQlLimitsProperties limits;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Test
+	void queryAtTheMaximumDepthRuns() {
+		graphQlTester.document(nestedTypeQuery(limits.getMaxDepth()))
+				.execute()
+				.path("__type.name").entity(String.class).isEqualTo("Report");
+	}
+
+	@Test
+	void deeperQueryIsRejected() {
+		double rejected = rejected("depth");
+
+		assertAborted(graphQlTester.document(nestedTypeQuery(limits.getMaxDepth() + 1)).execute());
+		assertThat(rejected("depth")).isEqualTo(rejected + 1);
+	}
+
+	@Test
+	void fullPageOfReportsRuns() {
+		graphQlTester.document("{ reports(first: 100) { edges { node { " + REPORT_FIELDS + " } cursor } } }")
+				.execute()
+				.path("reports.edges").entityList(Object.class).hasSizeGreaterThan(0);
+	}
+
+	// Each full page costs about 900, so three of them (aliased) go over 2,000
+	@Test
+	void tooComplexQueryIsRejected() {
+		StringBuilder query = new StringBuilder("{");
+		for (int i = 0; i < 3; i++) {
+			query.append(" page").append(i)
+					.append(": reports(first: 100) { edges { node { ").append(REPORT_FIELDS).append(" } cursor } }");
+		}
+		double rejected = rejected("complexity");
+
+		assertAborted(graphQlTester.document(query.append(" }").toString()).execute());
+		assertThat(rejected("complexity")).isEqualTo(rejected + 1);
+	}
+
+	// A query that is `depth` fields deep: __type, then ofType down to the name
+	private static String nestedTypeQuery(int depth) {
+		String query = "{ __type(name: \"Report\") { name " + " ofType { ".repeat(depth - 2) + "name" + " }".repeat(depth - 2);
+		return query + " } }";
+	}
+
+	private double rejected(String reason) {
+		return registry.counter("graphql.requests.rejected", "reason", reason).count();
+	}
+
+	private static void assertAborted(GraphQlTester.Response response) {
+		response.errors().satisfy(errors -> assertThat(errors)
+				.singleElement()
+				.extracting(ResponseError::getMessage)
+				.asString()
+				.containsAnyOf("maximum query depth", "maximum query complexity"));
+	}
+}
@@ -0,0 +1,148 @@
+package com.madina.citizen.controller;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Paging through the reports connection with the cursors it hands out
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReportConnectionTests {
+
+	// Only these tests use it, so their pages hold nothing else
+	private static final String CATEGORY = "Connection Test";
+	private static final int REPORTS = 120;
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+	private static final String PAGE = """
+			query($first: Int, $after: String, $orderBy: ReportOrder) {
+			  reports(first: $first, after: $after, orderBy: $orderBy, category: "%s") {
+			    edges { node { id } }
+			    pageInfo { hasNextPage endCursor }
+			  }
+			}""".formatted(CATEGORY);
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	// Ids in insertion order, and newest first: the timestamps are shuffled so that both orders differ
+	private final List<Long> byId = new ArrayList<>();
+	private final List<Long> newest = new ArrayList<>();
+
+	@BeforeAll
+	void insertReports() {
+		List<Map.Entry<Long, LocalDateTime>> rows = new ArrayList<>();
+		for (int i = 0; i < REPORTS; i++) {
+			LocalDateTime timestamp = START.plusMinutes((i * 7L) % REPORTS);
+			jdbc.update("INSERT INTO reports (description, location, category, category_key, reporter_name, status, timestamp) "
+					+ "VALUES ('Report " + i + "', 'Sfax', ?, UPPER(?), 'Tester', 'PENDING', ?)",
+					CATEGORY, CATEGORY, Timestamp.valueOf(timestamp));
+			Long id = jdbc.queryForObject("SELECT MAX(id) FROM reports", Long.class);
+			byId.add(id);
+			rows.add(Map.entry(id, timestamp));
+		}
+		rows.sort(Map.Entry.<Long, LocalDateTime>comparingByValue().reversed());
+		rows.forEach(row -> newest.add(row.getKey()));
+	}
+
+	@AfterAll
+	void deleteReports() {
+		jdbc.update("DELETE FROM reports WHERE category_key = UPPER(?)", CATEGORY);
+	}
+
+	@Test
+	void pagesByIdReturnEveryReportOnce() {
+		assertThat(readAll("ID", 25)).isEqualTo(byId);
+	}
+
+	@Test
+	void pagesNewestFirstReturnEveryReportOnce() {
+		assertThat(readAll("NEWEST", 25)).isEqualTo(newest);
+	}
+
+	@Test
+	void newestCursorIsRejectedInIdOrder() {
+		String cursor = page(10, null, "NEWEST").path("reports.pageInfo.endCursor").entity(String.class).get();
+
+		assertBadRequest(page(10, cursor, "ID"));
+	}
+
+	@Test
+	void idCursorIsRejectedNewestFirst() {
+		String cursor = page(10, null, "ID").path("reports.pageInfo.endCursor").entity(String.class).get();
+
+		assertBadRequest(page(10, cursor, "NEWEST"));
+	}
+
+	@Test
+	void negativeFirstIsRejected() {
+		assertBadRequest(page(-1, null, "ID"));
+	}
+
+	// Spring GraphQL turns an empty window into an empty connection, hasNextPage included
+	@Test
+	void firstZeroReturnsAnEmptyPage() {
+		page(0, null, "ID").path("reports.edges").entityList(Object.class).hasSize(0);
+	}
+
+	@Test
+	void firstIsCappedAtTheMaximumPageSize() {
+		GraphQlTester.Response response = page(1000, null, "ID");
+
+		response.path("reports.edges").entityList(Object.class).hasSize(CitizenController.MAX_PAGE_SIZE);
+		response.path("reports.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true);
+	}
+
+	@Test
+	void firstDefaultsToTheDefaultPageSize() {
+		page(null, null, "ID").path("reports.edges").entityList(Object.class).hasSize(CitizenController.DEFAULT_PAGE_SIZE);
+	}
+
+	private List<Long> readAll(String orderBy, int first) {
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		boolean hasNext = true;
+		while (hasNext) {
+			GraphQlTester.Response response = page(first, after, orderBy);
+			ids.addAll(response.path("reports.edges[*].node.id").entityList(Long.class).get());
+			hasNext = response.path("reports.pageInfo.hasNextPage").entity(Boolean.class).get();
+			after = response.path("reports.pageInfo.endCursor").entity(String.class).get();
+		}
+		return ids;
+	}
+
+	private GraphQlTester.Response page(Integer first, String after, String orderBy) {
+		return graphQlTester.document(PAGE)
+				.variable("first", first)
+				.variable("after", after)
+				.variable("orderBy", orderBy)
+				.execute();
+	}
+
+	private static void assertBadRequest(GraphQlTester.Response response) {
+		response.errors().satisfy(errors -> assertThat(errors)
+				.singleElement()
+				.extracting(ResponseError::getErrorType)
+				.isEqualTo(ErrorType.BAD_REQUEST));
+	}
+}
@@ -0,0 +1,170 @@
+package com.madina.citizen.controller;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Filters of the reports and events connections, and the statuses clients may name
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReportFilterTests {
+
+	// Only these tests use them, in whatever case the rows were written
+	private static final String CATEGORY = "Filter Test";
+	private static final String OTHER_CATEGORY = "Filter Test Other";
+
+	private static final String REPORTS = """
+			query($status: ReportStatus, $category: String, $from: String, $to: String, $orderBy: ReportOrder) {
+			  reports(status: $status, category: $category, from: $from, to: $to, orderBy: $orderBy) {
+			    edges { node { description } }
+			  }
+			}""";
+
+	private static final String EVENTS = """
+			query($category: String, $from: String, $to: String) {
+			  events(category: $category, from: $from, to: $to) {
+			    edges { node { title } }
+			  }
+			}""";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private long pendingId;
+
+	@BeforeAll
+	void insertRows() {
+		report("early resolved", CATEGORY, "RESOLVED", LocalDateTime.of(2025, 4, 1, 9, 0));
+		report("resolved", "filter test ", "RESOLVED", LocalDateTime.of(2025, 4, 2, 9, 0));
+		report("pending", CATEGORY, "PENDING", LocalDateTime.of(2025, 4, 2, 10, 0));
+		pendingId = jdbc.queryForObject("SELECT MAX(id) FROM reports", Long.class);
+		report("late resolved", "FILTER TEST", "RESOLVED", LocalDateTime.of(2025, 4, 3, 9, 0));
+		report("last resolved", CATEGORY, "RESOLVED", LocalDateTime.of(2025, 4, 4, 9, 0));
+		report("other resolved", OTHER_CATEGORY, "RESOLVED", LocalDateTime.of(2025, 4, 2, 9, 0));
+
+		event("last", CATEGORY, LocalDateTime.of(2025, 6, 3, 18, 0));
+		event("first", "filter test", LocalDateTime.of(2025, 6, 1, 18, 0));
+		event("second", CATEGORY, LocalDateTime.of(2025, 6, 2, 18, 0));
+		event("other", OTHER_CATEGORY, LocalDateTime.of(2025, 6, 2, 18, 0));
+	}
+
+	@AfterAll
+	void deleteRows() {
+		jdbc.update("DELETE FROM reports WHERE category_key IN (UPPER(?), UPPER(?))", CATEGORY, OTHER_CATEGORY);
+		jdbc.update("DELETE FROM events WHERE category_key IN (UPPER(?), UPPER(?))", CATEGORY, OTHER_CATEGORY);
+	}
+
+	@Test
+	void filtersCombine() {
+		List<String> reports = reports("RESOLVED", "fIlTeR tEsT", "2025-04-02", "2025-04-03 09:00", "ID");
+
+		assertThat(reports).containsExactly("resolved");
+	}
+
+	@Test
+	void fromIsInclusiveAndToExclusive() {
+		List<String> reports = reports("RESOLVED", CATEGORY, "2025-04-02 09:00", "2025-04-04 09:00", "ID");
+
+		assertThat(reports).containsExactly("resolved", "late resolved");
+	}
+
+	@Test
+	void filteredReportsDefaultToNewestFirst() {
+		assertThat(reports(null, CATEGORY, null, null, null))
+				.containsExactly("last resolved", "late resolved", "pending", "resolved", "early resolved");
+	}
+
+	@Test
+	void filteredEventsDefaultToEarliestFirst() {
+		List<String> events = graphQlTester.document(EVENTS)
+				.variable("category", "FILTER TEST")
+				.variable("from", "2025-06-01")
+				.variable("to", "2025-06-03")
+				.execute()
+				.path("events.edges[*].node.title").entityList(String.class).get();
+
+		assertThat(events).containsExactly("first", "second");
+	}
+
+	@Test
+	void invalidDateIsRejected() {
+		assertBadRequest(graphQlTester.document(REPORTS)
+				.variable("category", CATEGORY)
+				.variable("from", "yesterday")
+				.execute());
+	}
+
+	@Test
+	void statusIsParsedInAnyCase() {
+		graphQlTester.document("mutation($id: ID!) { updateReportStatus(id: $id, status: \" in_progress \") { status } }")
+				.variable("id", pendingId)
+				.execute()
+				.path("updateReportStatus.status").entity(String.class).isEqualTo("IN_PROGRESS");
+		graphQlTester.document("mutation($id: ID!) { updateReportStatus(id: $id, status: \"Pending\") { status } }")
+				.variable("id", pendingId)
+				.execute()
+				.path("updateReportStatus.status").entity(String.class).isEqualTo("PENDING");
+	}
+
+	@Test
+	void unknownStatusIsRejected() {
+		assertBadRequest(graphQlTester.document("mutation($id: ID!) { updateReportStatus(id: $id, status: \"CLOSED\") { status } }")
+				.variable("id", pendingId)
+				.execute());
+	}
+
+	@Test
+	void noReportHasAnUnknownStatus() {
+		graphQlTester.document("{ getReportsByStatus(status: \"bogus\") { id } }")
+				.execute()
+				.path("getReportsByStatus").entityList(Object.class).hasSize(0);
+	}
+
+	private List<String> reports(String status, String category, String from, String to, String orderBy) {
+		return graphQlTester.document(REPORTS)
+				.variable("status", status)
+				.variable("category", category)
+				.variable("from", from)
+				.variable("to", to)
+				.variable("orderBy", orderBy)
+				.execute()
+				.path("reports.edges[*].node.description").entityList(String.class).get();
+	}
+
+	private void report(String description, String category, String status, LocalDateTime timestamp) {
+		jdbc.update("INSERT INTO reports (description, location, category, category_key, reporter_name, status, timestamp) "
+				+ "VALUES (?, 'Sousse', ?, UPPER(TRIM(?)), 'Tester', ?, ?)",
+				description, category, category, status, Timestamp.valueOf(timestamp));
+	}
+
+	private void event(String title, String category, LocalDateTime date) {
+		jdbc.update("INSERT INTO events (title, date, location, category, category_key, is_free) "
+				+ "VALUES (?, ?, 'Sousse', ?, UPPER(TRIM(?)), TRUE)",
+				title, Timestamp.valueOf(date), category, category);
+	}
+
+	private static void assertBadRequest(GraphQlTester.Response response) {
+		response.errors().satisfy(errors -> assertThat(errors)
+				.singleElement()
+				.extracting(ResponseError::getErrorType)
+				.isEqualTo(ErrorType.BAD_REQUEST));
+	}
+}
@@ -0,0 +1,121 @@
+package com.madina.citizen.controller;
+
+import com.madina.citizen.service.ReportEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// reportCreated / reportStatusChanged only push the reports matching their filters
+@SpringBootTest
+@AutoConfigureGraphQlTester
+class ReportSubscriptionTests {
+
+	// Only these tests use them
+	private static final String CATEGORY = "Subscription Test";
+	private static final String OTHER_CATEGORY = "Subscription Test Other";
+
+	private static final String CREATE = """
+			mutation($description: String!, $location: String!, $category: String!) {
+			  createReport(description: $description, location: $location, category: $category, reporterName: "Tester") { id }
+			}""";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private ReportEventBus reportEvents;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final List<Disposable> subscriptions = new CopyOnWriteArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		subscriptions.forEach(Disposable::dispose);
+		jdbc.update("DELETE FROM reports WHERE category_key IN (UPPER(?), UPPER(?))", CATEGORY, OTHER_CATEGORY);
+	}
+
+	@Test
+	void newReportsAreFilteredByCategoryAndLocation() throws InterruptedException {
+		List<String> byCategory = subscribe(
+				"subscription { reportCreated(category: \"SUBSCRIPTION test\") { description } }",
+				"reportCreated.description");
+		List<String> byBoth = subscribe(
+				"subscription { reportCreated(category: \"Subscription Test\", location: \"tunis\") { description } }",
+				"reportCreated.description");
+
+		create("in Tunis", "Rue de Marseille, Tunis", CATEGORY);
+		create("in Sfax", "Route de Gabès, Sfax", CATEGORY);
+		create("other category", "Rue de Marseille, Tunis", OTHER_CATEGORY);
+		create("last", "La Marsa, Tunis", CATEGORY);
+
+		awaitSize(byCategory, 3);
+		awaitSize(byBoth, 2);
+		assertThat(byCategory).containsExactly("in Tunis", "in Sfax", "last");
+		assertThat(byBoth).containsExactly("in Tunis", "last");
+	}
+
+	@Test
+	void statusChangesAreFilteredByLocation() throws InterruptedException {
+		String inTunis = create("in Tunis", "Rue de Marseille, Tunis", CATEGORY);
+		String inSfax = create("in Sfax", "Route de Gabès, Sfax", CATEGORY);
+		List<String> changes = subscribe(
+				"subscription { reportStatusChanged(location: \"TUNIS\", category: \"subscription test\") "
+						+ "{ report { description status } previousStatus deleted } }",
+				"reportStatusChanged.report.status");
+
+		graphQlTester.document("mutation($id: ID!) { updateReportStatus(id: $id, status: \"RESOLVED\") { id } }")
+				.variable("id", inSfax).executeAndVerify();
+		graphQlTester.document("mutation($id: ID!) { updateReportStatus(id: $id, status: \"IN_PROGRESS\") { id } }")
+				.variable("id", inTunis).executeAndVerify();
+		graphQlTester.document("mutation($id: ID!) { deleteReport(id: $id) }")
+				.variable("id", inTunis).executeAndVerify();
+
+		awaitSize(changes, 2);
+		assertThat(changes).containsExactly("IN_PROGRESS", "IN_PROGRESS");
+	}
+
+	// Collects what the subscription pushes, once it is open
+	private List<String> subscribe(String subscription, String path) throws InterruptedException {
+		int before = reportEvents.subscriberCount();
+		List<String> received = new CopyOnWriteArrayList<>();
+		Flux<String> flux = graphQlTester.document(subscription).executeSubscription().toFlux(path, String.class);
+		subscriptions.add(flux.subscribe(received::add));
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (reportEvents.subscriberCount() == before && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(reportEvents.subscriberCount()).isGreaterThan(before);
+		return received;
+	}
+
+	private String create(String description, String location, String category) {
+		return graphQlTester.document(CREATE)
+				.variable("description", description)
+				.variable("location", location)
+				.variable("category", category)
+				.execute()
+				.path("createReport.id").entity(String.class).get();
+	}
+
+	// Then a little longer, for anything that should not have come
+	private static void awaitSize(List<String> received, int size) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (received.size() < size && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(200);
+	}
+}
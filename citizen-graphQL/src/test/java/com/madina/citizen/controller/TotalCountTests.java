@@ -0,0 +1,83 @@
+package com.madina.citizen.controller;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// totalCount of the connections: counted when filtered, the row count estimate otherwise
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TotalCountTests {
+
+	// Only these tests use it
+	private static final String CATEGORY = "Count Test";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@BeforeAll
+	void insertRows() {
+		for (int i = 0; i < 30; i++) {
+			jdbc.update("INSERT INTO reports (description, location, category, category_key, reporter_name, status, timestamp) "
+					+ "VALUES ('Report', 'Bizerte', ?, UPPER(?), 'Tester', ?, ?)",
+					CATEGORY, CATEGORY, i % 3 == 0 ? "RESOLVED" : "PENDING",
+					Timestamp.valueOf(LocalDateTime.of(2025, 5, 1, 0, 0).plusHours(i)));
+		}
+		for (int i = 0; i < 4; i++) {
+			jdbc.update("INSERT INTO events (title, date, location, category, category_key, is_free) "
+					+ "VALUES ('Event', ?, 'Bizerte', ?, UPPER(?), TRUE)",
+					Timestamp.valueOf(LocalDateTime.of(2025, 8, 1, 0, 0).plusDays(i)), CATEGORY, CATEGORY);
+		}
+	}
+
+	@AfterAll
+	void deleteRows() {
+		jdbc.update("DELETE FROM reports WHERE category_key = UPPER(?)", CATEGORY);
+		jdbc.update("DELETE FROM events WHERE category_key = UPPER(?)", CATEGORY);
+	}
+
+	@Test
+	void filteredReportsAreCountedPastThePage() {
+		graphQlTester.document("{ reports(first: 5, category: \"count test\") { totalCount } }")
+				.execute()
+				.path("reports.totalCount").entity(Integer.class).isEqualTo(30);
+	}
+
+	@Test
+	void everyFilterIsCounted() {
+		graphQlTester.document("{ reports(first: 5, status: RESOLVED, category: \"Count Test\", "
+						+ "from: \"2025-05-01 06:00\", to: \"2025-05-02\") { totalCount } }")
+				.execute()
+				.path("reports.totalCount").entity(Integer.class).isEqualTo(6);
+	}
+
+	@Test
+	void unfilteredReportsAreTheRowCountEstimate() {
+		int estimate = jdbc.queryForObject(
+				"SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'REPORTS'", Integer.class);
+
+		graphQlTester.document("{ reports(first: 1) { totalCount } }")
+				.execute()
+				.path("reports.totalCount").entity(Integer.class).isEqualTo(estimate);
+	}
+
+	@Test
+	void filteredEventsAreCounted() {
+		graphQlTester.document("{ events(first: 1, category: \"COUNT TEST\", from: \"2025-08-02\") { totalCount } }")
+				.execute()
+				.path("events.totalCount").entity(Integer.class).isEqualTo(3);
+	}
+}
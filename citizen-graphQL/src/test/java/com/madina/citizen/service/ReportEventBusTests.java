@@ -0,0 +1,111 @@
+package com.madina.citizen.service;
+
+import com.madina.citizen.model.Report;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A subscriber that reads too slowly loses the oldest changes, the others are not held up
+class ReportEventBusTests {
+
+	private static final int BUFFER_SIZE = 4;
+	private static final int PUBLISHED = 20;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ReportEventBus bus = new ReportEventBus(BUFFER_SIZE, registry);
+
+	@AfterEach
+	void shutdown() {
+		bus.shutdown();
+	}
+
+	@Test
+	void slowSubscriberKeepsTheNewestChanges() throws InterruptedException {
+		PausedSubscriber slow = new PausedSubscriber();
+		bus.reportsCreated(null, null).subscribe(slow);
+
+		for (int i = 0; i < PUBLISHED; i++) {
+			bus.reportCreated(report(i));
+		}
+		slow.requestUnbounded();
+		awaitEverythingAccountedFor(slow);
+
+		assertThat(dropped()).isPositive();
+		assertThat(slow.received.size()).isLessThanOrEqualTo(BUFFER_SIZE + 1); // publishOn holds one more
+		assertThat(slow.received.subList(slow.received.size() - BUFFER_SIZE, slow.received.size()))
+				.containsExactly("report 16", "report 17", "report 18", "report 19");
+	}
+
+	@Test
+	void slowSubscriberDoesNotHoldUpTheOthers() throws InterruptedException {
+		PausedSubscriber slow = new PausedSubscriber();
+		PausedSubscriber fast = new PausedSubscriber();
+		bus.reportsCreated(null, null).subscribe(slow);
+		bus.reportsCreated(null, null).subscribe(fast);
+		fast.requestUnbounded();
+
+		// Each one waits for the fast subscriber to get the previous one, which the slow one never asks for
+		for (int i = 0; i < PUBLISHED; i++) {
+			bus.reportCreated(report(i));
+			awaitSize(fast.received, i + 1);
+		}
+
+		assertThat(fast.received).hasSize(PUBLISHED).endsWith("report 19");
+		assertThat(slow.received).isEmpty();
+	}
+
+	@Test
+	void subscriptionsAreCounted() {
+		Disposable subscription = bus.statusChanges("Roads", null).subscribe();
+
+		assertThat(registry.get("graphql.subscriptions.active").gauge().value()).isEqualTo(1);
+		subscription.dispose();
+		assertThat(registry.get("graphql.subscriptions.active").gauge().value()).isEqualTo(0);
+	}
+
+	private void awaitEverythingAccountedFor(PausedSubscriber subscriber) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (subscriber.received.size() + dropped() < PUBLISHED && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(subscriber.received.size() + dropped()).isEqualTo(PUBLISHED);
+	}
+
+	private static void awaitSize(List<String> received, int size) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (received.size() < size && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private int dropped() {
+		return (int) registry.get("graphql.subscriptions.dropped").counter().count();
+	}
+
+	private static Report report(int i) {
+		return new Report("report " + i, "Avenue Habib Bourguiba, Tunis", "Roads", "Tester");
+	}
+
+	// Asks for nothing until told to
+	private static final class PausedSubscriber extends BaseSubscriber<Report> {
+
+		final List<String> received = new CopyOnWriteArrayList<>();
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+		}
+
+		@Override
+		protected void hookOnNext(Report report) {
+			received.add(report.getDescription());
+		}
+	}
+}
@@ -27,8 +27,21 @@ export default function App() {
 
     useEffect(() => {
         fetchAlerts();
-        const interval = setInterval(fetchAlerts, 3000); // Live update every 3s
-        return () => clearInterval(interval);
+        // Live updates pushed by the server (SubscribeAlerts via SSE) instead of polling.
+        // EventSource reconnects by itself and resumes from the last event id.
+        const events = new EventSource(`${API_URL}/alerts/events`);
+        const upsert = (e) => {
+            const { alert } = JSON.parse(e.data);
+            setAlerts(prev => [alert, ...prev.filter(a => a.alertId !== alert.alertId)]
+                .sort((a, b) => new Date(b.receivedTimestamp) - new Date(a.receivedTimestamp)));
+        };
+        events.addEventListener('CREATED', upsert);
+        events.addEventListener('STATUS_CHANGED', upsert);
+        // Another citizen reported the same incident: the alert comes back with its new reportCount
+        events.addEventListener('REPORTED', upsert);
+        // Events were lost (slow connection or server restart): reload the full list once
+        events.addEventListener('RESYNC', fetchAlerts);
+        return () => events.close();
     }, []);
 
     return (
@@ -112,12 +125,17 @@ function DashboardView({ alerts, refresh }) {
 
 // --- VIEW 2: ADMIN (Update Status) ---
 function AdminView({ alerts, refresh }) {
-    const updateStatus = async (id, newStatus) => {
+    // Sends the status shown on screen: if another operator changed it meanwhile, the server answers 409
+    const updateStatus = async (id, newStatus, shownStatus) => {
         try {
-            await axios.put(`${API_URL}/alerts/${id}/status`, newStatus, { headers: { "Content-Type": "text/plain" } });
+            await axios.put(`${API_URL}/alerts/${id}/status`, newStatus, {
+                headers: { "Content-Type": "text/plain" },
+                params: { expectedStatus: shownStatus }
+            });
             refresh();
         } catch (e) {
-            alert("Erreur update status");
+            alert(e.response?.status === 409 ? "Alerte déjà modifiée par un autre opérateur" : "Erreur update status");
+            refresh();
         }
     };
 
@@ -150,13 +168,13 @@ function AdminView({ alerts, refresh }) {
                                 <StatusBadge status={alert.status} />
                             </td>
                             <td className="p-3 text-right flex justify-end gap-2 opacity-100 sm:opacity-0 sm:group-hover:opacity-100 transition">
-                                {alert.status !== 'IN_PROGRESS' && (
-                                    <button onClick={() => updateStatus(alert.alertId, 'IN_PROGRESS')} className="px-3 py-1 text-xs font-bold bg-yellow-100 text-yellow-700 rounded hover:bg-yellow-200">
+                                {alert.status !== 'IN_PROGRESS' && alert.status !== 'CANCELLED' && (
+                                    <button onClick={() => updateStatus(alert.alertId, 'IN_PROGRESS', alert.status)} className="px-3 py-1 text-xs font-bold bg-yellow-100 text-yellow-700 rounded hover:bg-yellow-200">
                                         Prendre en charge
                                     </button>
                                 )}
-                                {alert.status !== 'RESOLVED' && (
-                                    <button onClick={() => updateStatus(alert.alertId, 'RESOLVED')} className="px-3 py-1 text-xs font-bold bg-green-100 text-green-700 rounded hover:bg-green-200">
+                                {alert.status !== 'RESOLVED' && alert.status !== 'CANCELLED' && (
+                                    <button onClick={() => updateStatus(alert.alertId, 'RESOLVED', alert.status)} className="px-3 py-1 text-xs font-bold bg-green-100 text-green-700 rounded hover:bg-green-200">
                                         Résoudre
                                     </button>
                                 )}
@@ -229,6 +247,8 @@ function ChatView() {
     ]);
     const [input, setInput] = useState('');
     const chatBoxRef = useRef(null);
+    // Conversation id given by the server with the first reply (also the key of /chat/{streamId}/events)
+    const streamIdRef = useRef(null);
 
     const sendMessage = async (e) => {
         e.preventDefault();
@@ -243,8 +263,10 @@ function ChatView() {
             // Send to Java -> gRPC -> Java -> React
             const res = await axios.post(`${API_URL}/chat`, {
                 senderCin: "12345678", // Demo CIN
-                message: userMsg.text
+                message: userMsg.text,
+                streamId: streamIdRef.current
             });
+            streamIdRef.current = res.data.streamId;
 
             // Add server reply
             const serverMsg = {
@@ -343,6 +365,7 @@ function AlertItem({ alert }) {
                 <div className="flex items-center gap-3 text-xs text-gray-400">
                     <span className="flex items-center gap-1"><MapPin size={12}/> {alert.latitude.toFixed(4)}, {alert.longitude.toFixed(4)}</span>
                     <span className="flex items-center gap-1"><Users size={12}/> CIN: {alert.senderCin}</span>
+                    {alert.reportCount > 1 && <span className="font-bold text-red-600">{alert.reportCount} signalements</span>}
                     <StatusBadge status={alert.status} />
                 </div>
             </div>
@@ -0,0 +1,125 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.ListAlertsRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * CreateAlert latency while other clients stream the whole table over and over (group "flood"),
+ * with admission control off and on. With it on, part of the listings is shed (aux counter
+ * "shed") and CreateAlert keeps its share of the server. createAlertAlone is the unloaded
+ * reference. Add "-bm sample" for tail latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AdmissionControlBenchmark {
+
+    @Param({"false", "true"})
+    public boolean admission;
+
+    @Param({"2000"})
+    public int rows;
+
+    private static final long SHED_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+
+    private static final AlertRequest ALERT = AlertRequest.newBuilder()
+            .setType("ACCIDENT")
+            .setLatitude(36.8516)
+            .setLongitude(10.1961)
+            .setDescription("Collision multiple sur la Route X direction Aéroport.")
+            .setSenderCin("09123456")
+            .build();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long shed; // UNAVAILABLE: refused by admission control
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            shed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start(
+                "urgence.admission.enabled=" + admission,
+                // One sender: only the concurrency limit is under test here
+                "urgence.admission.sender-alerts-per-minute=0");
+        AlertDataset.generate(server.bean(JdbcTemplate.class), rows, 42);
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        // Normal traffic before the flood, from which the adaptive limit learns the unloaded latency
+        for (int i = 0; i < 500; i++) {
+            stub.createAlert(ALERT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public AlertResponse createAlertAlone() {
+        return stub.createAlert(ALERT);
+    }
+
+    @Benchmark
+    @Group("flood")
+    @GroupThreads(1)
+    public AlertResponse createAlert(Outcomes outcomes) {
+        return call(() -> stub.createAlert(ALERT), outcomes);
+    }
+
+    @Benchmark
+    @Group("flood")
+    @GroupThreads(16)
+    public Integer listAlerts(Outcomes outcomes, Blackhole bh) {
+        return call(() -> {
+            int count = 0;
+            Iterator<AlertResponse> stream = stub.listAlerts(ListAlertsRequest.getDefaultInstance());
+            while (stream.hasNext()) {
+                bh.consume(stream.next());
+                count++;
+            }
+            return count;
+        }, outcomes);
+    }
+
+    private static <T> T call(Supplier<T> call, Outcomes outcomes) {
+        try {
+            return call.get();
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.UNAVAILABLE) {
+                throw e;
+            }
+            outcomes.shed++;
+            // Back off like a gRPC retry policy would, instead of spinning on the same CPUs as the server
+            LockSupport.parkNanos(SHED_BACKOFF_NANOS);
+            return null;
+        }
+    }
+}
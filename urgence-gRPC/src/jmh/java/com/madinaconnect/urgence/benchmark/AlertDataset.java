@@ -0,0 +1,57 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.model.GeoCell;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Repeatable synthetic alerts table: same seed, same rows. Positions are spread over
+ * northern Tunisia, timestamps over the last {@link #DAYS} days. Inserted with plain JDBC
+ * batches because going through JPA would dominate the setup time at millions of rows.
+ */
+final class AlertDataset {
+
+    static final String[] TYPES = {"ACCIDENT", "FIRE", "MEDICAL", "FLOOD", "CRIME"};
+    static final int DAYS = 90;
+    static final double MIN_LAT = 33.0, MAX_LAT = 37.3;
+    static final double MIN_LON = 8.0, MAX_LON = 11.2;
+    private static final int BATCH = 5_000;
+
+    private AlertDataset() {
+    }
+
+    static void generate(JdbcTemplate jdbc, int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+        AlertStatus[] statuses = AlertStatus.values();
+        String sql = "INSERT INTO alerts (id, type, sender_cin, latitude, longitude, geo_cell, description, status, timestamp, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            double lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+            double lon = MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+            batch.add(new Object[]{
+                    new UUID(random.nextLong(), random.nextLong()).toString(),
+                    TYPES[random.nextInt(TYPES.length)],
+                    String.format("%08d", random.nextInt(100_000_000)),
+                    lat, lon, GeoCell.of(lat, lon),
+                    "Synthetic alert #" + i,
+                    statuses[random.nextInt(statuses.length)].name(),
+                    Timestamp.valueOf(now.minusSeconds(random.nextLong(DAYS * 86_400L)))});
+            if (batch.size() == BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.ListAlertsRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlertResponse size and serialization cost per read_mask, on a 1000-alert page:
+ * <ul>
+ *   <li>legacy: no mask, the string fields (status, type, ISO timestamp) and the description;</li>
+ *   <li>list: the legacy fields a list screen shows, without description and sender;</li>
+ *   <li>compact: the same with enum codes and epoch millis instead of strings.</li>
+ * </ul>
+ * Bytes per alert are printed at setup; encode/decode time the protobuf work alone, page the
+ * whole ListAlerts call (query, mapping, encoding) over the in-process channel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AlertEncodingBenchmark {
+
+    private static final int PAGE = 1000;
+
+    @Param({"legacy", "list", "compact"})
+    public String view;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private ListAlertsRequest request;
+    private List<AlertResponse> alerts;
+    private List<byte[]> encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        AlertDataset.generate(server.bean(JdbcTemplate.class), 10_000, 42);
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        request = ListAlertsRequest.newBuilder()
+                .setPageSize(PAGE)
+                .setNewestFirst(true)
+                .setReadMask(mask(view))
+                .build();
+
+        alerts = new ArrayList<>(PAGE);
+        stub.listAlerts(request).forEachRemaining(alerts::add);
+        encoded = new ArrayList<>(PAGE);
+        long bytes = 0;
+        for (AlertResponse alert : alerts) {
+            byte[] message = alert.toByteArray();
+            encoded.add(message);
+            bytes += message.length;
+        }
+        System.out.printf("%n[%s] %d alerts, %.1f bytes/alert%n", view, alerts.size(), (double) bytes / alerts.size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public void encode(Blackhole bh) {
+        for (AlertResponse alert : alerts) {
+            bh.consume(alert.toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws InvalidProtocolBufferException {
+        for (byte[] message : encoded) {
+            bh.consume(AlertResponse.parseFrom(message));
+        }
+    }
+
+    @Benchmark
+    public int page(Blackhole bh) {
+        int count = 0;
+        for (Iterator<AlertResponse> stream = stub.listAlerts(request); stream.hasNext(); count++) {
+            bh.consume(stream.next());
+        }
+        return count;
+    }
+
+    private static FieldMask mask(String view) {
+        FieldMask.Builder mask = FieldMask.newBuilder();
+        switch (view) {
+            case "legacy" -> { }
+            case "list" -> mask.addPaths("alert_id").addPaths("type").addPaths("status")
+                    .addPaths("latitude").addPaths("longitude").addPaths("received_timestamp").addPaths("cursor");
+            case "compact" -> mask.addPaths("alert_id").addPaths("type_code").addPaths("status_code")
+                    .addPaths("latitude").addPaths("longitude").addPaths("received_epoch_millis").addPaths("cursor");
+            default -> throw new IllegalArgumentException(view);
+        }
+        return mask.build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.BatchSummary;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchCreateAlerts throughput over the in-process channel, one upload of {@link #ALERTS}
+ * alerts per invocation. Scores are alerts/s (not uploads/s), so they compare across
+ * urgence.batch.flush-size settings: -jvmArgsAppend -Durgence.batch.flush-size=...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BatchUploadBenchmark {
+
+    private static final int ALERTS = 1_000;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceStub stub;
+    private AlertRequest[] alerts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String flushSize = System.getProperty("urgence.batch.flush-size");
+        server = flushSize == null
+                ? BenchmarkServer.start()
+                : BenchmarkServer.start("urgence.batch.flush-size=" + flushSize);
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newStub(channel);
+        alerts = new AlertRequest[ALERTS];
+        for (int i = 0; i < ALERTS; i++) {
+            alerts[i] = AlertRequest.newBuilder()
+                    .setType(AlertDataset.TYPES[i % AlertDataset.TYPES.length])
+                    .setLatitude(36.8 + i * 1e-4)
+                    .setLongitude(10.18 + i * 1e-4)
+                    .setDescription("Patrouille: incident #" + i)
+                    .setSenderCin(String.format("%08d", i))
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ALERTS)
+    public BatchSummary upload() {
+        CompletableFuture<BatchSummary> summary = new CompletableFuture<>();
+        StreamObserver<AlertRequest> upload = stub.batchCreateAlerts(new StreamObserver<>() {
+            @Override
+            public void onNext(BatchSummary value) { summary.complete(value); }
+            @Override
+            public void onError(Throwable t) { summary.completeExceptionally(t); }
+            @Override
+            public void onCompleted() {}
+        });
+        for (AlertRequest alert : alerts) {
+            upload.onNext(alert);
+        }
+        upload.onCompleted();
+        return summary.join();
+    }
+}
@@ -0,0 +1,71 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.UrgenceApplication;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the real urgence application for benchmarks, with a private in-memory DB,
+ * the network gRPC server on {@link #GRPC_PORT} and an in-process server on {@link #IN_PROCESS_NAME}.
+ * H2 result reuse is disabled so that repeating the same query really runs it. Admission control
+ * is off unless a benchmark turns it on, since most of them hammer the server from one sender.
+ */
+public final class BenchmarkServer implements AutoCloseable {
+
+    static final int GRPC_PORT = 19090;
+    static final String IN_PROCESS_NAME = "urgence-benchmark";
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkServer(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static BenchmarkServer start(String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "server.port=0",
+                "grpc.server.port=" + GRPC_PORT,
+                "grpc.server.in-process-name=" + IN_PROCESS_NAME,
+                "urgence.admission.enabled=false",
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE"));
+        // A property given twice on the command line would be bound as "a,b": extras replace the defaults
+        for (String extra : extraProperties) {
+            String key = extra.substring(0, extra.indexOf('=') + 1);
+            properties.removeIf(p -> p.startsWith(key));
+            properties.add(extra);
+        }
+        // Passed as command line arguments so they override application.properties
+        String[] args = properties.stream().map(p -> "--" + p).toArray(String[]::new);
+        return new BenchmarkServer(new SpringApplicationBuilder(UrgenceApplication.class).run(args));
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int httpPort() {
+        return context.getEnvironment().getProperty("local.server.port", Integer.class);
+    }
+
+    static ManagedChannel loopbackChannel() {
+        return ManagedChannelBuilder.forAddress("localhost", GRPC_PORT).usePlaintext().build();
+    }
+
+    public static ManagedChannel inProcessChannel() {
+        return InProcessChannelBuilder.forName(IN_PROCESS_NAME).directExecutor().build();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
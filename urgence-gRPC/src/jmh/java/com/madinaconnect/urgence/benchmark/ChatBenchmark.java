@@ -0,0 +1,62 @@
+package com.madinaconnect.urgence.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * POST /api/chat against a stub LLM that takes 200 ms per answer.
+ * repeated=true sends the same panic phrase every time (served from the LRU cache),
+ * repeated=false makes every message unique (every call reaches the LLM, bounded by max-concurrent-calls).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class ChatBenchmark {
+
+    @Param({"true", "false"})
+    public boolean repeated;
+
+    private StubLlmServer llm;
+    private BenchmarkServer server;
+    private HttpClient http;
+    private URI chatUri;
+    private final AtomicLong counter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        llm = new StubLlmServer(200);
+        server = BenchmarkServer.start(
+                "urgence.ai.endpoint=" + llm.endpoint(),
+                "urgence.ai.api-key=stub");
+        http = HttpClient.newHttpClient();
+        chatUri = URI.create("http://localhost:" + server.httpPort() + "/api/chat");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        server.close();
+        llm.close();
+    }
+
+    @Benchmark
+    public int sendChat() throws IOException, InterruptedException {
+        String message = repeated ? "Au secours, il y a du feu!" : "Au secours, il y a du feu! #" + counter.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(chatUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"senderCin\":\"09123456\",\"message\":\"" + message + "\"}"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,163 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.compression.DeflateCodec;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.ListAlertsRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CPU cost against bytes saved, for a 1000-alert page:
+ * <ul>
+ *   <li>grpcPage: ListAlerts over TCP loopback, responses in the codec (identity = uncompressed).
+ *   gRPC compresses each message on its own, and the server is run with min-message-size=0 so
+ *   that every alert is compressed, however small;</li>
+ *   <li>restPage: GET /api/alerts through the gateway, gzip by Tomcat for any codec but identity
+ *   (HTTP has no deflate here). The whole response is one compressed stream.</li>
+ * </ul>
+ * Bytes per page are printed at setup. On the single-CPU benchmark host the time per page is
+ * also the CPU spent by client and server together.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    private static final int PAGE = 1000;
+
+    @Param({"identity", "gzip", DeflateCodec.ENCODING})
+    public String codec;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private final ListAlertsRequest request = ListAlertsRequest.newBuilder().setPageSize(PAGE).build();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private HttpRequest restRequest;
+
+    // Sizes seen by the client: on the wire and once decompressed
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkServer.start(
+                "urgence.transport.codecs=" + (codec.equals("identity") ? "" : codec),
+                "urgence.transport.min-message-size=0",
+                "urgence.gateway.target=localhost:" + BenchmarkServer.GRPC_PORT);
+        AlertDataset.generate(server.bean(JdbcTemplate.class), 10_000, 42);
+        channel = NettyChannelBuilder.forAddress("localhost", BenchmarkServer.GRPC_PORT)
+                .usePlaintext()
+                .decompressorRegistry(DecompressorRegistry.getDefaultInstance().with(new DeflateCodec(1), true))
+                .intercept(new SizeRecorder())
+                .build();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        HttpRequest.Builder rest = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.httpPort() + "/api/alerts?pageSize=" + PAGE));
+        if (!codec.equals("identity")) {
+            rest.header("Accept-Encoding", "gzip");
+        }
+        restRequest = rest.build();
+
+        drain(stub.listAlerts(request), null);
+        System.out.printf("%n[%s] grpc: %d bytes on the wire, %d uncompressed (%.0f%%)%n", codec,
+                wireBytes.get(), uncompressedBytes.get(), 100.0 * wireBytes.get() / uncompressedBytes.get());
+        HttpResponse<byte[]> response = http.send(restRequest, HttpResponse.BodyHandlers.ofByteArray());
+        System.out.printf("[%s] rest: HTTP %d, %d bytes on the wire, Content-Encoding %s%n", codec,
+                response.statusCode(), response.body().length, response.headers().firstValue("Content-Encoding").orElse("none"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        http.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int grpcPage(Blackhole bh) {
+        return drain(stub.listAlerts(request), bh);
+    }
+
+    @Benchmark
+    public long restPage() throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = http.send(restRequest, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.headers().firstValue("Content-Encoding").isPresent()
+                ? new GZIPInputStream(response.body())
+                : response.body()) {
+            return body.transferTo(OutputStreamSink.INSTANCE);
+        }
+    }
+
+    private static int drain(Iterator<AlertResponse> stream, Blackhole bh) {
+        int count = 0;
+        while (stream.hasNext()) {
+            AlertResponse alert = stream.next();
+            if (bh != null) {
+                bh.consume(alert);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static final class OutputStreamSink extends java.io.OutputStream {
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+
+    // Adds the inbound sizes of every call to the counters
+    private final class SizeRecorder implements ClientInterceptor {
+        @Override
+        public <Q, R> ClientCall<Q, R> interceptCall(MethodDescriptor<Q, R> method, CallOptions options, Channel next) {
+            return next.newCall(method, options.withStreamTracerFactory(new ClientStreamTracer.Factory() {
+                @Override
+                public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, io.grpc.Metadata headers) {
+                    return new ClientStreamTracer() {
+                        @Override
+                        public void inboundWireSize(long bytes) {
+                            wireBytes.addAndGet(bytes);
+                        }
+
+                        @Override
+                        public void inboundUncompressedSize(long bytes) {
+                            uncompressedBytes.addAndGet(bytes);
+                        }
+                    };
+                }
+            }));
+        }
+    }
+}
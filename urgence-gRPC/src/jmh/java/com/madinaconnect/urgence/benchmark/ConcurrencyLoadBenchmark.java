@@ -0,0 +1,82 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test: many concurrent callers creating alerts, with the server on platform threads
+ * (virtual=false) and on virtual threads (virtual=true). Compare throughput and, with
+ * "-bm sample", tail latency. The thread count is above Tomcat's default pool of 200
+ * so that the platform-thread ceiling shows up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class ConcurrencyLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtual;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private HttpClient http;
+    private URI createUri;
+
+    private static final AlertRequest ALERT = AlertRequest.newBuilder()
+            .setType("ACCIDENT")
+            .setLatitude(36.8516)
+            .setLongitude(10.1961)
+            .setDescription("Collision multiple sur la Route X direction Aéroport.")
+            .setSenderCin("09123456")
+            .build();
+
+    private static final String ALERT_JSON = "{\"type\":\"ACCIDENT\",\"latitude\":36.8516,\"longitude\":10.1961,"
+            + "\"description\":\"Collision multiple sur la Route X direction Aéroport.\",\"senderCin\":\"09123456\"}";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start(
+                "spring.threads.virtual.enabled=" + virtual,
+                "urgence.virtual-threads.pinning-diagnostics=" + virtual);
+        channel = BenchmarkServer.loopbackChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        http = HttpClient.newHttpClient();
+        createUri = URI.create("http://localhost:" + server.httpPort() + "/api/alerts");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        http.close();
+        server.close();
+    }
+
+    @Benchmark
+    public AlertResponse grpcCreateAlert() {
+        return stub.createAlert(ALERT);
+    }
+
+    @Benchmark
+    public int restCreateAlert() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(createUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ALERT_JSON))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,109 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dispatch screen queries ListAlerts runs (first chunk of 50), newest first and in the
+ * default oldest-first order (GET /api/alerts?type=FIRE), for each {@link ListingIndexes} set;
+ * ListingIndexWriteBenchmark measures what the same sets cost on inserts and status updates.
+ * 10M rows work too (-p rows=10000000) but need a bigger heap than the default fork gets:
+ * -jvmArgsAppend -Xmx12g.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ListAlertsQueryBenchmark {
+
+    private static final int CHUNK = 50;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"NONE", "NEWEST", "ALL"})
+    public ListingIndexes indexes;
+
+    private BenchmarkServer server;
+    private AlertRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        JdbcTemplate jdbc = server.bean(JdbcTemplate.class);
+        indexes.apply(jdbc);
+        AlertDataset.generate(jdbc, rows, 42);
+        repository = server.bean(AlertRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<AlertEntity> newestPendingOfType() {
+        return firstChunk(new AlertListQuery("FIRE", AlertStatus.PENDING, null, null, true));
+    }
+
+    @Benchmark
+    public List<AlertEntity> newestOfType() {
+        return firstChunk(new AlertListQuery("FIRE", null, null, null, true));
+    }
+
+    @Benchmark
+    public List<AlertEntity> oldestPendingOfType() {
+        return firstChunk(new AlertListQuery("FIRE", AlertStatus.PENDING, null, null, false));
+    }
+
+    @Benchmark
+    public List<AlertEntity> oldestOfType() {
+        return firstChunk(new AlertListQuery("FIRE", null, null, null, false));
+    }
+
+    @Benchmark
+    public List<AlertEntity> oldestPending() {
+        return firstChunk(new AlertListQuery(null, AlertStatus.PENDING, null, null, false));
+    }
+
+    // A later chunk of the type-only oldest-first listing, as AlertPageStreamer reads it
+    @Benchmark
+    public List<AlertEntity> oldestOfTypeAfterCursor() {
+        AlertListQuery listing = new AlertListQuery("FIRE", null, null, null, false);
+        return repository.findBy(listing.toSpecification(LocalDateTime.of(2024, 11, 15, 0, 0), ""),
+                query -> query.limit(CHUNK).all());
+    }
+
+    @Benchmark
+    public List<AlertEntity> newestPending() {
+        return firstChunk(new AlertListQuery(null, AlertStatus.PENDING, null, null, true));
+    }
+
+    // A later chunk of the same listing, resumed from a cursor in the middle of the table
+    @Benchmark
+    public List<AlertEntity> newestPendingAfterCursor() {
+        AlertListQuery listing = new AlertListQuery(null, AlertStatus.PENDING, null, null, true);
+        return repository.findBy(listing.toSpecification(LocalDateTime.of(2024, 11, 15, 0, 0), ""),
+                query -> query.limit(CHUNK).all());
+    }
+
+    @Benchmark
+    public List<AlertEntity> oneDayRange() {
+        LocalDateTime day = LocalDateTime.of(2024, 12, 15, 0, 0);
+        return firstChunk(new AlertListQuery(null, null, day, day.plusDays(1), false));
+    }
+
+    private List<AlertEntity> firstChunk(AlertListQuery listing) {
+        return repository.findBy(listing.toSpecification(null, null), query -> query.limit(CHUNK).all());
+    }
+}
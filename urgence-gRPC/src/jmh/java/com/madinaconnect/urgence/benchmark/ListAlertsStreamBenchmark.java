@@ -0,0 +1,70 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.ListAlertsRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListAlerts over the in-process channel at several table sizes: the whole table streamed
+ * (keyset chunks + flow control, see AlertPageStreamer) and a single 100-alert page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ListAlertsStreamBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private final ListAlertsRequest all = ListAlertsRequest.getDefaultInstance();
+    private final ListAlertsRequest newestPage = ListAlertsRequest.newBuilder()
+            .setPageSize(100)
+            .setNewestFirst(true)
+            .build();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        AlertDataset.generate(server.bean(JdbcTemplate.class), rows, 42);
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public int streamWholeTable(Blackhole bh) {
+        return drain(stub.listAlerts(all), bh);
+    }
+
+    @Benchmark
+    public int newestPage(Blackhole bh) {
+        return drain(stub.listAlerts(newestPage), bh);
+    }
+
+    private static int drain(Iterator<AlertResponse> stream, Blackhole bh) {
+        int count = 0;
+        while (stream.hasNext()) {
+            bh.consume(stream.next());
+            count++;
+        }
+        return count;
+    }
+}
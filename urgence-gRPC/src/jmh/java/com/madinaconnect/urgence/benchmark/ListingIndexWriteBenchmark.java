@@ -0,0 +1,72 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the listing indexes cost on the write path: the insert of CreateAlert (saveAlertToDb) and
+ * the conditional UPDATE of UpdateAlertStatus, for each {@link ListingIndexes} set, on a table
+ * already holding {@code rows} alerts. The read side is ListAlertsQueryBenchmark. Measured on the
+ * database alone: the write-ahead log, when enabled, adds its fsync to both.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ListingIndexWriteBenchmark {
+
+    private static final AlertStatus[] STATUSES = AlertStatus.values();
+    private static final List<AlertStatus> ANY_STATUS = List.of(STATUSES);
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"NONE", "NEWEST", "ALL"})
+    public ListingIndexes indexes;
+
+    private BenchmarkServer server;
+    private AlertRepository repository;
+    private String[] ids;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        JdbcTemplate jdbc = server.bean(JdbcTemplate.class);
+        indexes.apply(jdbc);
+        AlertDataset.generate(jdbc, rows, 42);
+        ids = jdbc.queryForList("SELECT id FROM alerts LIMIT 100000", String.class).toArray(String[]::new);
+        repository = server.bean(AlertRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public AlertEntity insert() {
+        long n = next++;
+        AlertEntity alert = new AlertEntity(UUID.randomUUID().toString(), AlertDataset.TYPES[(int) (n % AlertDataset.TYPES.length)],
+                "09876543", 36.8065, 10.1815, "Collision sur l'avenue Habib Bourguiba.", AlertStatus.PENDING,
+                LocalDateTime.now());
+        return repository.save(alert);
+    }
+
+    // Every status change moves the row in the indexes that start with or contain status
+    @Benchmark
+    public int updateStatus() {
+        long n = next++;
+        return repository.transitionStatus(ids[(int) (n % ids.length)], ANY_STATUS, STATUSES[(int) (n % STATUSES.length)]);
+    }
+}
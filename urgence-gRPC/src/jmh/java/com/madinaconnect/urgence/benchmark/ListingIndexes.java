@@ -0,0 +1,36 @@
+package com.madinaconnect.urgence.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Sets of the listing indexes declared on AlertEntity, compared by ListAlertsQueryBenchmark
+ * (reads) and ListingIndexWriteBenchmark (inserts and status updates). The geo-cell index is
+ * always kept.
+ */
+public enum ListingIndexes {
+    NONE(),
+    // The newest-first composites, and the default unfiltered stream
+    NEWEST("idx_alerts_type_status_newest", "idx_alerts_type_newest", "idx_alerts_status_newest",
+            "idx_alerts_newest", "idx_alerts_oldest"),
+    // All of them: NEWEST and the oldest-first filtered listings
+    ALL("idx_alerts_type_status_newest", "idx_alerts_type_status_oldest", "idx_alerts_type_newest",
+            "idx_alerts_type_oldest", "idx_alerts_status_newest", "idx_alerts_status_oldest",
+            "idx_alerts_newest", "idx_alerts_oldest");
+
+    private final List<String> names;
+
+    ListingIndexes(String... names) {
+        this.names = List.of(names);
+    }
+
+    /** Drops the listing indexes that are not in this set. */
+    void apply(JdbcTemplate jdbc) {
+        for (String index : ALL.names) {
+            if (!names.contains(index)) {
+                jdbc.execute("DROP INDEX " + index);
+            }
+        }
+    }
+}
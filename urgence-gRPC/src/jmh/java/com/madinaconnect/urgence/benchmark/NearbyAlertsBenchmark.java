@@ -0,0 +1,69 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.NearbyAlertsRequest;
+import com.madinaconnect.urgence.service.NearbyAlertSearch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "PENDING alerts within 2 km" and "within 25 km" (too many cells for one IN list: read row by row)
+ * on a large table: geo_cell index (NearbyAlertSearch, closest 500) against the same bounding box
+ * answered by a scan over latitude/longitude, which have no index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class NearbyAlertsBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"2000", "25000"})
+    public double radius;
+
+    private static final double LAT = 36.8065, LON = 10.1815; // Tunis centre
+    private static final String BOX_SQL = "SELECT * FROM alerts WHERE latitude BETWEEN ? AND ? "
+            + "AND longitude BETWEEN ? AND ? AND status = 'PENDING'";
+
+    private BenchmarkServer server;
+    private NearbyAlertSearch search;
+    private JdbcTemplate jdbc;
+    private NearbyAlertsRequest request;
+    private Object[] box;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        jdbc = server.bean(JdbcTemplate.class);
+        AlertDataset.generate(jdbc, rows, 42);
+        search = server.bean(NearbyAlertSearch.class);
+        double dLat = radius / 111_320, dLon = radius / (111_320 * Math.cos(Math.toRadians(LAT)));
+        box = new Object[]{LAT - dLat, LAT + dLat, LON - dLon, LON + dLon};
+        request = NearbyAlertsRequest.newBuilder()
+                .setLatitude(LAT).setLongitude(LON).setRadiusMeters(radius)
+                .setStatusFilter("PENDING")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<NearbyAlertSearch.Match> geoCellIndex() {
+        return search.search(request);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rangeScan() {
+        return jdbc.queryForList(BOX_SQL, box);
+    }
+}
@@ -0,0 +1,88 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CreateAlert throughput per persistence mode, with 1 and 16 concurrent callers:
+ * <ul>
+ *   <li>memory: the default in-memory H2 database, lost on restart;</li>
+ *   <li>h2-file: H2 on disk. It does not fsync each commit (its store is written in the
+ *   background), so a power loss can lose the last acknowledged alerts;</li>
+ *   <li>wal: in-memory H2 plus the write-ahead log, fsynced before every reply. With 16 callers
+ *   one group commit acknowledges several alerts, which is what keeps it close to memory.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceThroughputBenchmark {
+
+    @Param({"memory", "h2-file", "wal"})
+    public String persistence;
+
+    private Path directory;
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private AlertRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("urgence-persistence");
+        server = startServer(persistence, directory);
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        request = AlertRequest.newBuilder()
+                .setType("ACCIDENT")
+                .setLatitude(36.8065)
+                .setLongitude(10.1815)
+                .setDescription("Collision entre deux voitures sur l'avenue Habib Bourguiba.")
+                .setSenderCin("09876543")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AlertResponse createAlert() {
+        return stub.createAlert(request);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AlertResponse createAlertConcurrent() {
+        return stub.createAlert(request);
+    }
+
+    // Shared with RecoveryTimeBenchmark: the same mode started twice on the same directory sees the same data
+    static BenchmarkServer startServer(String persistence, Path directory) {
+        return switch (persistence) {
+            case "memory" -> BenchmarkServer.start();
+            case "h2-file" -> BenchmarkServer.start(
+                    "spring.datasource.url=jdbc:h2:file:" + directory.resolve("urgence") + ";OPTIMIZE_REUSE_RESULTS=FALSE");
+            case "wal" -> BenchmarkServer.start(
+                    "urgence.wal.enabled=true",
+                    "urgence.wal.directory=" + directory.resolve("wal"));
+            default -> throw new IllegalArgumentException("Unknown persistence " + persistence);
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import com.madinaconnect.urgence.wal.AlertJournal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for a restarted server to be ready with all of its alerts. h2-file reopens its
+ * database file; wal replays the log into an empty in-memory database. memory starts empty
+ * and is the baseline (Spring Boot startup itself).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecoveryTimeBenchmark {
+
+    @Param({"memory", "h2-file", "wal"})
+    public String persistence;
+
+    @Param({"10000", "100000"})
+    public int alerts;
+
+    private Path directory;
+    private BenchmarkServer restarted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("urgence-recovery");
+        if (persistence.equals("memory")) {
+            return;
+        }
+        try (BenchmarkServer server = PersistenceThroughputBenchmark.startServer(persistence, directory)) {
+            AlertDataset.generate(server.bean(JdbcTemplate.class), alerts, 42);
+            if (persistence.equals("wal")) {
+                // Log what the dataset inserted directly into H2, as if it had come through CreateAlert
+                List<AlertEntity> stored = server.bean(AlertRepository.class).findAll();
+                server.bean(AlertJournal.class).created(stored);
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        restarted.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long restart() {
+        restarted = PersistenceThroughputBenchmark.startServer(persistence, directory);
+        return restarted.bean(AlertRepository.class).count();
+    }
+}
@@ -0,0 +1,111 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.GetAlertRequest;
+import com.madinaconnect.urgence.grpc.UpdateStatusRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many dispatchers changing the status of the same few alerts at once. Each operation reads
+ * an alert, then moves it PENDING <-> IN_PROGRESS: with expectedStatus (compare-and-set, the
+ * loser gets ABORTED) or without (the UPDATE only checks the lifecycle). Fewer hot alerts means
+ * more contention; the aux counters show how many updates applied and how many lost the race.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class StatusContentionBenchmark {
+
+    @Param({"1", "16", "256"})
+    public int hotAlerts;
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private List<String> alertIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long applied;
+        public long conflicts;  // ABORTED: someone else changed the alert since it was read
+        public long rejected;   // FAILED_PRECONDITION: the transition was no longer allowed
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            applied = 0;
+            conflicts = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        AlertRequest request = AlertRequest.newBuilder()
+                .setType("FIRE")
+                .setLatitude(36.8234)
+                .setLongitude(10.1732)
+                .setDescription("Départ de feu signalé dans la zone boisée du Parc du Belvédère.")
+                .setSenderCin("14567890")
+                .build();
+        alertIds = new ArrayList<>(hotAlerts);
+        for (int i = 0; i < hotAlerts; i++) {
+            alertIds.add(stub.createAlert(request).getAlertId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public void compareAndSet(Outcomes outcomes) {
+        toggle(outcomes, true);
+    }
+
+    @Benchmark
+    public void lifecycleOnly(Outcomes outcomes) {
+        toggle(outcomes, false);
+    }
+
+    private void toggle(Outcomes outcomes, boolean withExpected) {
+        String id = alertIds.get(ThreadLocalRandom.current().nextInt(alertIds.size()));
+        String seen = stub.getAlert(GetAlertRequest.newBuilder().setAlertId(id).build()).getStatus();
+        UpdateStatusRequest.Builder update = UpdateStatusRequest.newBuilder()
+                .setAlertId(id)
+                .setNewStatus(seen.equals("PENDING") ? "IN_PROGRESS" : "PENDING");
+        if (withExpected) {
+            update.setExpectedStatus(seen);
+        }
+        try {
+            stub.updateAlertStatus(update.build());
+            outcomes.applied++;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.ABORTED) {
+                outcomes.conflicts++;
+            } else if (e.getStatus().getCode() == Status.Code.FAILED_PRECONDITION) {
+                outcomes.rejected++;
+            } else {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal stand-in for the Gemini generateContent endpoint: answers every POST with a fixed
+ * candidate after a configurable delay. Wire it with urgence.ai.endpoint={@link #endpoint()} and any
+ * non-empty urgence.ai.api-key (the key is ignored).
+ */
+final class StubLlmServer implements AutoCloseable {
+
+    private static final byte[] RESPONSE = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":"
+            + "\"Restez calme, votre position est enregistrée, nous arrivons.\"}],\"role\":\"model\"}}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    StubLlmServer(long delayMillis) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/generate";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.GetAlertRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway -> service hop: the same GetAlert call over TCP loopback (port 9090 style)
+ * and over the in-process transport. Run with "-prof gc" to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private BenchmarkServer server;
+    private ManagedChannel loopback;
+    private ManagedChannel inProcess;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub loopbackStub;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub inProcessStub;
+    private GetAlertRequest getRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        loopback = BenchmarkServer.loopbackChannel();
+        inProcess = BenchmarkServer.inProcessChannel();
+        loopbackStub = UrgenceServiceGrpc.newBlockingStub(loopback);
+        inProcessStub = UrgenceServiceGrpc.newBlockingStub(inProcess);
+
+        AlertResponse created = inProcessStub.createAlert(AlertRequest.newBuilder()
+                .setType("FIRE")
+                .setLatitude(36.8234)
+                .setLongitude(10.1732)
+                .setDescription("Départ de feu signalé dans la zone boisée du Parc du Belvédère.")
+                .setSenderCin("14567890")
+                .build());
+        getRequest = GetAlertRequest.newBuilder().setAlertId(created.getAlertId()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        loopback.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        inProcess.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public AlertResponse getAlertLoopback() {
+        return loopbackStub.getAlert(getRequest);
+    }
+
+    @Benchmark
+    public AlertResponse getAlertInProcess() {
+        return inProcessStub.getAlert(getRequest);
+    }
+}
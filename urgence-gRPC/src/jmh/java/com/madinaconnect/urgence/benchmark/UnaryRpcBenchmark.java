@@ -0,0 +1,60 @@
+package com.madinaconnect.urgence.benchmark;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.GetAlertRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end unary calls over the in-process channel: full gRPC call path (marshalling,
+ * interceptors, service, JPA) minus the network. See TransportBenchmark for loopback TCP.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnaryRpcBenchmark {
+
+    private BenchmarkServer server;
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+    private AlertRequest createRequest;
+    private GetAlertRequest getRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        channel = BenchmarkServer.inProcessChannel();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+        createRequest = AlertRequest.newBuilder()
+                .setType("ACCIDENT")
+                .setLatitude(36.8065)
+                .setLongitude(10.1815)
+                .setDescription("Collision entre deux voitures sur l'avenue Habib Bourguiba.")
+                .setSenderCin("09876543")
+                .build();
+        getRequest = GetAlertRequest.newBuilder().setAlertId(stub.createAlert(createRequest).getAlertId()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    @Benchmark
+    public AlertResponse createAlert() {
+        return stub.createAlert(createRequest);
+    }
+
+    @Benchmark
+    public AlertResponse getAlert() {
+        return stub.getAlert(getRequest);
+    }
+}
@@ -0,0 +1,62 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.benchmark.BenchmarkServer;
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two helpers every alert RPC goes through, without any transport around them:
+ * entity -> AlertResponse mapping (pure CPU + allocation) and the JPA insert.
+ * Lives in the service package because both methods are package-private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceHotPathBenchmark {
+
+    private BenchmarkServer server;
+    private UrgenceGrpcServiceImpl service;
+    private AlertEntity entity;
+    private AlertRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        service = server.bean(UrgenceGrpcServiceImpl.class);
+        entity = new AlertEntity(UUID.randomUUID().toString(), "FIRE", "14567890", 36.8234, 10.1732,
+                "Départ de feu signalé dans la zone boisée du Parc du Belvédère.",
+                AlertStatus.PENDING, LocalDateTime.of(2025, 1, 1, 8, 30));
+        request = AlertRequest.newBuilder()
+                .setType("FIRE")
+                .setLatitude(36.8234)
+                .setLongitude(10.1732)
+                .setDescription("Départ de feu signalé dans la zone boisée du Parc du Belvédère.")
+                .setSenderCin("14567890")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public AlertResponse mapToResponse() {
+        return service.mapToResponse(entity);
+    }
+
+    @Benchmark
+    public AlertEntity saveAlertToDb() {
+        return service.saveAlertToDb(request);
+    }
+}
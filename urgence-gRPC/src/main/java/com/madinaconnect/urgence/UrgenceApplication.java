@@ -1,8 +1,13 @@
 package com.madinaconnect.urgence;
 
+import com.madinaconnect.urgence.cluster.AlertIds;
+import com.madinaconnect.urgence.config.ClusterProperties;
 import com.madinaconnect.urgence.model.AlertEntity;
 import com.madinaconnect.urgence.model.AlertStatus;
 import com.madinaconnect.urgence.repository.AlertRepository;
+import com.madinaconnect.urgence.wal.AlertJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -14,27 +19,34 @@ import java.util.Arrays;
 @SpringBootApplication
 public class UrgenceApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(UrgenceApplication.class);
+
 	public static void main(String[] args) {
 		SpringApplication.run(UrgenceApplication.class, args);
 	}
 
 	// This Bean runs automatically when the server starts
 	@Bean
-	public CommandLineRunner initData(AlertRepository repository) {
+	public CommandLineRunner initData(AlertRepository repository, AlertJournal journal, AlertIds ids, ClusterProperties cluster) {
 		return args -> {
-			// 1. Check if data exists. If yes, stop here.
+			// Clustered: one copy of the demo data, on the first partition
+			if (cluster.getPartition() != 0) {
+				return;
+			}
+
+			// 1. Check if data exists (e.g. replayed from the write-ahead log). If yes, stop here.
 			if (repository.count() > 0) {
-				System.out.println("ℹ️ Database already has data. Skipping initialization.");
+				log.info("Database already has data, skipping demo data");
 				return;
 			}
 
-			System.out.println("⚠️ Database is empty. Injecting Tunisian context data...");
+			log.info("Database is empty, injecting Tunisian demo alerts");
 
 			// 2. Prepare the Data (Tunis Context)
 
 			// Accident on Route X
 			AlertEntity a1 = new AlertEntity(
-					null, // ID is auto-generated
+					ids.next(),
 					"ACCIDENT",
 					"09123456", // CIN
 					36.8516, 10.1961,
@@ -45,7 +57,7 @@ public class UrgenceApplication {
 
 			// Fire at Belvedere
 			AlertEntity a2 = new AlertEntity(
-					null,
+					ids.next(),
 					"FIRE",
 					"14567890",
 					36.8234, 10.1732,
@@ -56,7 +68,7 @@ public class UrgenceApplication {
 
 			// Medical at Bourguiba
 			AlertEntity a3 = new AlertEntity(
-					null,
+					ids.next(),
 					"MEDICAL",
 					"07889900",
 					36.8008, 10.1800,
@@ -67,7 +79,7 @@ public class UrgenceApplication {
 
 			// Flood in Ariana
 			AlertEntity a4 = new AlertEntity(
-					null,
+					ids.next(),
 					"ACCIDENT",
 					"11223344",
 					36.8625, 10.1956,
@@ -78,7 +90,7 @@ public class UrgenceApplication {
 
 			// False Alarm in Lac 2
 			AlertEntity a5 = new AlertEntity(
-					null,
+					ids.next(),
 					"FIRE",
 					"05667788",
 					36.8442, 10.2699,
@@ -88,9 +100,9 @@ public class UrgenceApplication {
 			);
 
 			// 3. Save everything to Database
-			repository.saveAll(Arrays.asList(a1, a2, a3, a4, a5));
+			journal.created(repository.saveAll(Arrays.asList(a1, a2, a3, a4, a5)));
 
-			System.out.println("✅ Fake Tunisian Data Injected Successfully!");
+			log.info("Demo data injected count={}", 5);
 		};
 	}
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.madinaconnect.urgence.admission;
+
+/**
+ * Concurrency limit that follows the latency of completed calls (the gradient algorithm of
+ * Netflix's concurrency-limits). Every {@code window} samples:
+ * <ul>
+ *   <li>the baseline tracks the unloaded latency: it drops quickly to faster windows and
+ *   only creeps up, so that a slower database eventually becomes the new normal;</li>
+ *   <li>while calls stay within tolerance x baseline the limit grows by about sqrt(limit);</li>
+ *   <li>once they get slower (queueing for DB connections or CPU) it shrinks in proportion,
+ *   down to half per window.</li>
+ * </ul>
+ * The limit only grows when calls actually came close to it, so a quiet server does not
+ * drift up to maxLimit and then let a burst through all at once.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BASELINE_RISE = 0.01;
+    private static final double BASELINE_FALL = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int window;
+
+    private volatile int limit;
+    private double estimate;
+    private double baselineNanos;
+
+    private long windowNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, int window) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.window = window;
+        this.estimate = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimate;
+    }
+
+    int get() {
+        return limit;
+    }
+
+    /**
+     * @param latencyNanos duration of a completed call
+     * @param inFlight     calls in flight when it started, itself included
+     */
+    synchronized void onSample(long latencyNanos, int inFlight) {
+        windowNanos += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (++windowSamples < window) {
+            return;
+        }
+        double latency = (double) windowNanos / windowSamples;
+        boolean nearLimit = windowMaxInFlight * 2 >= estimate;
+        windowNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (baselineNanos == 0) {
+            baselineNanos = latency;
+        } else {
+            baselineNanos += (latency - baselineNanos) * (latency < baselineNanos ? BASELINE_FALL : BASELINE_RISE);
+        }
+        double gradient = Math.clamp(tolerance * baselineNanos / latency, 0.5, 1.0);
+        double target = estimate * gradient + Math.sqrt(estimate);
+        if (target > estimate && !nearLimit) {
+            return;
+        }
+        estimate = Math.clamp(estimate + (target - estimate) * SMOOTHING, minLimit, maxLimit);
+        limit = (int) estimate;
+    }
+}
@@ -0,0 +1,248 @@
+package com.madinaconnect.urgence.admission;
+
+import com.madinaconnect.urgence.config.AdmissionProperties;
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.service.RequestIdStore;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps CreateAlert responsive when the server is flooded with listings or uploads.
+ * <ul>
+ *   <li>deadlines: a call whose deadline has already passed is not started, and a unary call
+ *   that expired while waiting for a thread is dropped before the service runs it;</li>
+ *   <li>load shedding: calls in flight are capped by an {@link AdaptiveConcurrencyLimit}.
+ *   Bulk calls (ListAlerts, BatchCreateAlerts) are refused once all calls in flight reach
+ *   bulkShare of it, short reads at normalShare. CreateAlert and UpdateAlertStatus are only
+ *   counted against each other, so streams admitted before the limit dropped cannot lock them
+ *   out. Shed calls fail with UNAVAILABLE, which clients may retry;</li>
+ *   <li>rate limiting: CreateAlert is limited per sender_cin with a token bucket
+ *   (RESOURCE_EXHAUSTED). Alerts without a CIN are only subject to the concurrency limit, and a
+ *   retry of a request_id already received costs no token: it only gets the first reply back.</li>
+ * </ul>
+ * Metrics: {@code grpc.server.admission.rejected} by method and reason,
+ * {@code grpc.server.admission.limit} and {@code grpc.server.admission.in.flight}.
+ */
+@Component
+@GrpcGlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // Inside GrpcMetricsInterceptor, which then records the rejections too
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlInterceptor implements ServerInterceptor {
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry registry;
+    private final AdaptiveConcurrencyLimit limit;
+    private final SenderRateLimiter senderLimiter; // null when unlimited
+    private final RequestIdStore requestIds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger criticalInFlight = new AtomicInteger();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public AdmissionControlInterceptor(AdmissionProperties properties, MeterRegistry registry,
+                                       RequestIdStore requestIds) {
+        this.properties = properties;
+        this.registry = registry;
+        this.requestIds = requestIds;
+        this.limit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getLatencyTolerance(), properties.getSampleWindow());
+        this.senderLimiter = properties.getSenderAlertsPerMinute() > 0
+                ? new SenderRateLimiter(properties.getSenderAlertsPerMinute() / 60, properties.getSenderBurst(),
+                        properties.getMaxTrackedSenders())
+                : null;
+        Gauge.builder("grpc.server.admission.limit", limit, AdaptiveConcurrencyLimit::get)
+                .description("Calls allowed in flight (CreateAlert and UpdateAlertStatus may use all of it)")
+                .register(registry);
+        Gauge.builder("grpc.server.admission.in.flight", inFlight, AtomicInteger::get)
+                .description("Calls in flight counted against the limit")
+                .register(registry);
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        if (!properties.isEnabled()) {
+            return next.startCall(call, headers);
+        }
+        MethodDescriptor<Q, R> method = call.getMethodDescriptor();
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            return reject(call, Status.DEADLINE_EXCEEDED.withDescription("Deadline expired before the call started"),
+                    "deadline");
+        }
+        CallPriority priority = CallPriority.of(method.getBareMethodName());
+        if (priority == CallPriority.EXEMPT) {
+            return next.startCall(call, headers);
+        }
+        int admittedAt = tryAcquire(priority);
+        if (admittedAt == 0) {
+            return reject(call, Status.UNAVAILABLE.withDescription("Server overloaded, retry later"), "overload");
+        }
+
+        // Only unary latencies say something about load; a stream lasts as long as its client wants
+        Permit permit = new Permit(priority, admittedAt, method.getType() == MethodDescriptor.MethodType.UNARY);
+        ServerCall<Q, R> releasingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                permit.release(status.getCode());
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<Q> listener;
+        try {
+            listener = next.startCall(releasingCall, headers);
+        } catch (RuntimeException e) {
+            permit.release(Status.Code.UNKNOWN);
+            throw e;
+        }
+        boolean rateLimited = senderLimiter != null && method.getBareMethodName().equals("CreateAlert");
+        return new AdmittedListener<>(listener, releasingCall, permit, rateLimited);
+    }
+
+    // Returns the calls in flight including this one, or 0 if the priority's share of the limit is used up
+    private int tryAcquire(CallPriority priority) {
+        int current = limit.get();
+        return switch (priority) {
+            case CRITICAL -> tryIncrement(criticalInFlight, current) > 0 ? inFlight.incrementAndGet() : 0;
+            case NORMAL -> tryIncrement(inFlight, (int) (current * properties.getNormalShare()));
+            case BULK -> tryIncrement(inFlight, (int) (current * properties.getBulkShare()));
+            case EXEMPT -> throw new IllegalArgumentException("EXEMPT calls are not counted");
+        };
+    }
+
+    private static int tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            int current = counter.get();
+            if (current >= Math.max(1, max)) {
+                return 0;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private boolean isRetry(AlertRequest alert) {
+        String key = RequestIdStore.keyOf(alert);
+        return key != null && requestIds.isKnown(key);
+    }
+
+    private <Q, R> ServerCall.Listener<Q> reject(ServerCall<Q, R> call, Status status, String reason) {
+        countRejection(call.getMethodDescriptor().getFullMethodName(), reason);
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {};
+    }
+
+    private void countRejection(String method, String reason) {
+        rejections.computeIfAbsent(method + '/' + reason, key -> Counter.builder("grpc.server.admission.rejected")
+                .description("Calls refused or dropped by admission control")
+                .tags("method", method, "reason", reason)
+                .register(registry)).increment();
+    }
+
+    // One admitted call's slot in the limit, released exactly once (close or cancellation)
+    private final class Permit {
+        private final long start = System.nanoTime();
+        private final CallPriority priority;
+        private final int admittedAt;
+        private final boolean sampled;
+        private final AtomicBoolean released = new AtomicBoolean();
+        // Set when this interceptor closed the call itself: its duration says nothing about load
+        volatile boolean refused;
+
+        Permit(CallPriority priority, int admittedAt, boolean sampled) {
+            this.priority = priority;
+            this.admittedAt = admittedAt;
+            this.sampled = sampled;
+        }
+
+        void release(Status.Code code) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            if (priority == CallPriority.CRITICAL) {
+                criticalInFlight.decrementAndGet();
+            }
+            if (sampled && !refused && code != Status.Code.CANCELLED) {
+                limit.onSample(System.nanoTime() - start, admittedAt);
+            }
+        }
+    }
+
+    // gRPC delivers these callbacks one at a time, so the fields need no synchronization
+    private final class AdmittedListener<Q, R> extends ForwardingServerCallListener.SimpleForwardingServerCallListener<Q> {
+        private final ServerCall<Q, R> call;
+        private final Permit permit;
+        private final boolean rateLimited;
+        private boolean closed;
+
+        AdmittedListener(ServerCall.Listener<Q> delegate, ServerCall<Q, R> call, Permit permit, boolean rateLimited) {
+            super(delegate);
+            this.call = call;
+            this.permit = permit;
+            this.rateLimited = rateLimited;
+        }
+
+        @Override
+        public void onMessage(Q message) {
+            if (closed) {
+                return;
+            }
+            if (rateLimited && message instanceof AlertRequest alert && !alert.getSenderCin().isEmpty()
+                    && !isRetry(alert) && !senderLimiter.tryAcquire(alert.getSenderCin())) {
+                close(Status.RESOURCE_EXHAUSTED.withDescription("Too many alerts from this sender, retry later"),
+                        "rate_limit");
+                return;
+            }
+            super.onMessage(message);
+        }
+
+        @Override
+        public void onHalfClose() {
+            if (closed) {
+                return;
+            }
+            if (Context.current().isCancelled()) {
+                // Expired (or abandoned) while queued for a thread: nobody is waiting for the answer
+                countRejection(call.getMethodDescriptor().getFullMethodName(), "expired");
+                closed = true;
+                return;
+            }
+            super.onHalfClose();
+        }
+
+        @Override
+        public void onCancel() {
+            permit.release(Status.Code.CANCELLED);
+            super.onCancel();
+        }
+
+        private void close(Status status, String reason) {
+            closed = true;
+            permit.refused = true;
+            countRejection(call.getMethodDescriptor().getFullMethodName(), reason);
+            call.close(status, new Metadata());
+        }
+    }
+}
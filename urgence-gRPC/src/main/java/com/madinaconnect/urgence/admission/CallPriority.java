@@ -0,0 +1,24 @@
+package com.madinaconnect.urgence.admission;
+
+/**
+ * How UrgenceService calls are treated when the server is loaded.
+ */
+enum CallPriority {
+    // Citizens reporting an emergency, dispatchers acting on one: may use the whole limit
+    CRITICAL,
+    // Short reads
+    NORMAL,
+    // Scans and uploads that can hold a DB connection for a long time: shed first
+    BULK,
+    // Long-lived, mostly idle streams (push, chat): not counted against the limit
+    EXEMPT;
+
+    static CallPriority of(String bareMethodName) {
+        return switch (bareMethodName) {
+            case "CreateAlert", "UpdateAlertStatus" -> CRITICAL;
+            case "ListAlerts", "BatchCreateAlerts" -> BULK;
+            case "SubscribeAlerts", "LiveChat" -> EXEMPT;
+            default -> NORMAL;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.madinaconnect.urgence.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * One token bucket per sender: up to {@code burst} requests at once, refilled at {@code perSecond}.
+ * A bucket unused for burst / perSecond seconds would be full again, so it is simply forgotten.
+ */
+final class SenderRateLimiter {
+
+    private final double perSecond;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+
+    SenderRateLimiter(double perSecond, int burst, int maxSenders) {
+        this.perSecond = perSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxSenders)
+                .expireAfterAccess(Duration.ofNanos((long) (burst / perSecond * 1e9)))
+                .build();
+    }
+
+    boolean tryAcquire(String sender) {
+        return buckets.get(sender, s -> new TokenBucket()).tryAcquire();
+    }
+
+    private final class TokenBucket {
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * perSecond / 1e9);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.madinaconnect.urgence.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.madinaconnect.urgence.config.AiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Asks the LLM (Gemini by default) for a calming dispatcher sentence.
+ * <ul>
+ *   <li>non-blocking: the JDK HttpClient sends asynchronously and keeps connections pooled</li>
+ *   <li>bounded: at most maxConcurrentCalls requests in flight, extra callers get the fallback</li>
+ *   <li>cached: repeated panic phrases are answered from a small LRU</li>
+ * </ul>
+ * Never fails: every error ends as a "Help is on the way" sentence, and so does every call when no
+ * api key is configured.
+ */
+@Component
+@EnableConfigurationProperties(AiProperties.class)
+public class DispatcherAiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatcherAiClient.class);
+
+    static final String FALLBACK = "Help is on the way.";
+
+    private static final String PROMPT = "(always answer by the language of the user promt , don't mix)You are a Tunisian emergency dispatcher. The caller is panicked. Respond with one calm, clear sentence that reassures them and gives the most immediate safe action they should take. Do NOT ask questions. Do NOT request more information and always said your location is registered we are coming now (after your reply). if the user thanked you or asked something always answer good general answers because you don't have the history of the messages he sended , keep it in a way like its continious conversation. Caller said:\n";
+
+    private final AiProperties properties;
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Semaphore permits;
+    private final Map<String, String> cache;
+
+    public DispatcherAiClient(AiProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        if (properties.getApiKey().isEmpty()) {
+            log.warn("urgence.ai.api-key is not set, /api/chat answers with the fallback sentence");
+            this.uri = null;
+        } else {
+            this.uri = URI.create(properties.getEndpoint() + "?key=" + properties.getApiKey());
+        }
+        this.permits = new Semaphore(properties.getMaxConcurrentCalls());
+        int cacheSize = properties.getCacheSize();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public CompletableFuture<String> calmingReply(String userMessage) {
+        if (uri == null) {
+            return CompletableFuture.completedFuture(FALLBACK);
+        }
+        String key = normalize(userMessage);
+        String cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(FALLBACK + " (Dispatcher busy)");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(properties.getReadTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody(userMessage)))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        log.warn("Gemini call failed status={}", response.statusCode());
+                        closeQuietly(response.body());
+                        return FALLBACK + " (AI Error: " + response.statusCode() + ")";
+                    }
+                    String text = extractText(response.body());
+                    if (text == null) {
+                        return FALLBACK;
+                    }
+                    cache.put(key, text);
+                    return text;
+                })
+                .exceptionally(e -> {
+                    log.warn("Gemini call failed error={}", e.toString());
+                    return FALLBACK + " (Connection Error)";
+                })
+                .whenComplete((text, e) -> permits.release());
+    }
+
+    // { "contents": [{ "parts": [{ "text": prompt }] }] }, escaped by Jackson
+    private byte[] requestBody(String userMessage) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putArray("contents").addObject()
+                .putArray("parts").addObject()
+                .put("text", PROMPT + userMessage);
+        try {
+            return objectMapper.writeValueAsBytes(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reads tokens until the first candidates[..].content.parts[..].text and stops there,
+    // without building the whole response tree.
+    private String extractText(InputStream body) {
+        try (InputStream in = body; JsonParser parser = jsonFactory.createParser(in)) {
+            boolean inCandidates = false;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) {
+                    continue;
+                }
+                String field = parser.currentName();
+                if ("candidates".equals(field)) {
+                    inCandidates = true;
+                } else if (inCandidates && "text".equals(field) && parser.nextToken() == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String normalize(String message) {
+        return message == null ? "" : message.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // nothing useful to do, the response is discarded anyway
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.madinaconnect.urgence.cluster;
+
+import com.madinaconnect.urgence.config.ClusterProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Alert ids, which carry the partition that owns the alert. In clustered mode a node stores
+ * the alerts it creates, and their id starts with its partition ({@code p1-<uuid>}), so any
+ * client can route GetAlert / UpdateAlertStatus to the right node from the id alone.
+ * A standalone node keeps plain UUIDs, which belong to partition 0.
+ */
+@Component
+@EnableConfigurationProperties(ClusterProperties.class)
+public class AlertIds {
+
+    private final String prefix;
+
+    public AlertIds(ClusterProperties properties) {
+        if (properties.getPartition() < 0 || properties.getPartition() >= properties.partitionCount()) {
+            throw new IllegalStateException("urgence.cluster.partition must be between 0 and "
+                    + (properties.partitionCount() - 1) + ", got " + properties.getPartition());
+        }
+        this.prefix = properties.isClustered() ? "p" + properties.getPartition() + "-" : "";
+    }
+
+    public String next() {
+        return prefix + UUID.randomUUID();
+    }
+
+    /** Partition that owns the alert. A UUID is hex, so it can never be mistaken for a prefix. */
+    public static int partitionOf(String alertId) {
+        int dash = alertId.indexOf('-');
+        if (!alertId.startsWith("p") || dash < 2 || dash > 6) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(alertId, 1, dash, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.madinaconnect.urgence.cluster;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client-side routing over the partition map of {@link PartitionNameResolverProvider}. Keeps one
+ * connection per node and picks, for every call:
+ * <ul>
+ *   <li>the node of {@link PartitionLoadBalancerProvider#PARTITION} when the call sets it (an
+ *   alert id routes to its owner, a scatter-gather call to each partition in turn). If that node
+ *   is down the call fails with UNAVAILABLE: no other node has the alert;</li>
+ *   <li>otherwise any ready node, round robin (CreateAlert: the receiving node becomes the owner).</li>
+ * </ul>
+ */
+final class PartitionLoadBalancer extends LoadBalancer {
+
+    private final Helper helper;
+    private final Map<Integer, Node> nodes = new HashMap<>();
+
+    PartitionLoadBalancer(Helper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public Status acceptResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+        Map<Integer, EquivalentAddressGroup> resolved = new HashMap<>();
+        for (EquivalentAddressGroup group : resolvedAddresses.getAddresses()) {
+            Integer partition = group.getAttributes().get(PartitionNameResolverProvider.PARTITION);
+            if (partition != null) {
+                resolved.put(partition, group);
+            }
+        }
+        if (resolved.isEmpty()) {
+            Status error = Status.UNAVAILABLE.withDescription("No partitioned urgence node in " + resolvedAddresses.getAddresses());
+            handleNameResolutionError(error);
+            return error;
+        }
+        // Nodes that moved (a restarted pod gets a new address) get a new connection
+        nodes.values().removeIf(node -> {
+            boolean stale = !node.addresses.equals(resolved.get(node.partition));
+            if (stale) {
+                node.subchannel.shutdown();
+            }
+            return stale;
+        });
+        resolved.forEach((partition, addresses) -> nodes.computeIfAbsent(partition, p -> connect(p, addresses)));
+        updatePicker();
+        return Status.OK;
+    }
+
+    @Override
+    public void handleNameResolutionError(Status error) {
+        if (nodes.isEmpty()) {
+            helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE, new FailingPicker(error));
+        }
+    }
+
+    @Override
+    public void requestConnection() {
+        for (Node node : nodes.values()) {
+            node.subchannel.requestConnection();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (Node node : nodes.values()) {
+            node.subchannel.shutdown();
+        }
+        nodes.clear();
+    }
+
+    private Node connect(int partition, EquivalentAddressGroup addresses) {
+        Subchannel subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder()
+                .setAddresses(addresses)
+                .build());
+        Node node = new Node(partition, addresses, subchannel);
+        subchannel.start(state -> onStateChange(node, state));
+        subchannel.requestConnection();
+        return node;
+    }
+
+    private void onStateChange(Node node, ConnectivityStateInfo state) {
+        if (nodes.get(node.partition) != node) {
+            return; // replaced or shut down
+        }
+        node.state = state.getState();
+        if (node.state == ConnectivityState.IDLE) {
+            // Every partition must stay reachable, not only the ones that were used recently
+            node.subchannel.requestConnection();
+        } else if (node.state == ConnectivityState.TRANSIENT_FAILURE) {
+            helper.refreshNameResolution();
+        }
+        updatePicker();
+    }
+
+    private void updatePicker() {
+        Map<Integer, Subchannel> ready = new HashMap<>();
+        Set<Integer> connecting = new HashSet<>();
+        for (Node node : nodes.values()) {
+            if (node.state == ConnectivityState.READY) {
+                ready.put(node.partition, node.subchannel);
+            } else if (node.state != ConnectivityState.TRANSIENT_FAILURE) {
+                connecting.add(node.partition);
+            }
+        }
+        ConnectivityState overall = !ready.isEmpty() ? ConnectivityState.READY
+                : !connecting.isEmpty() ? ConnectivityState.CONNECTING
+                : ConnectivityState.TRANSIENT_FAILURE;
+        helper.updateBalancingState(overall, new PartitionPicker(ready, connecting));
+    }
+
+    private static final class Node {
+        final int partition;
+        final EquivalentAddressGroup addresses;
+        final Subchannel subchannel;
+        ConnectivityState state = ConnectivityState.CONNECTING;
+
+        Node(int partition, EquivalentAddressGroup addresses, Subchannel subchannel) {
+            this.partition = partition;
+            this.addresses = addresses;
+            this.subchannel = subchannel;
+        }
+    }
+
+    private static final class PartitionPicker extends SubchannelPicker {
+
+        private final Map<Integer, Subchannel> ready;
+        private final List<Subchannel> anyReady;
+        private final Set<Integer> connecting;
+        private final AtomicInteger next = new AtomicInteger();
+
+        PartitionPicker(Map<Integer, Subchannel> ready, Set<Integer> connecting) {
+            this.ready = ready;
+            this.anyReady = new ArrayList<>(ready.values());
+            this.connecting = connecting;
+        }
+
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+            Integer partition = args.getCallOptions().getOption(PartitionLoadBalancerProvider.PARTITION);
+            if (partition == null) {
+                if (!anyReady.isEmpty()) {
+                    return PickResult.withSubchannel(anyReady.get(Math.floorMod(next.getAndIncrement(), anyReady.size())));
+                }
+                return connecting.isEmpty()
+                        ? PickResult.withError(Status.UNAVAILABLE.withDescription("No urgence node is reachable"))
+                        : PickResult.withNoResult();
+            }
+            Subchannel owner = ready.get(partition);
+            if (owner != null) {
+                return PickResult.withSubchannel(owner);
+            }
+            // Still connecting: the call waits for the next picker (bounded by its deadline)
+            return connecting.contains(partition)
+                    ? PickResult.withNoResult()
+                    : PickResult.withError(Status.UNAVAILABLE.withDescription("Partition " + partition + " is unavailable"));
+        }
+    }
+
+    private static final class FailingPicker extends SubchannelPicker {
+
+        private final Status error;
+
+        FailingPicker(Status error) {
+            this.error = error;
+        }
+
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+            return PickResult.withError(error);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.madinaconnect.urgence.cluster;
+
+import io.grpc.CallOptions;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.stub.AbstractStub;
+
+/**
+ * The "urgence_partition" load-balancing policy ({@link PartitionLoadBalancer}), registered through
+ * META-INF/services. Used with a {@link PartitionNameResolverProvider} target.
+ */
+public final class PartitionLoadBalancerProvider extends LoadBalancerProvider {
+
+    public static final String POLICY = "urgence_partition";
+
+    /** Partition a call must go to, see {@link AlertIds#partitionOf}. Unset: any node. */
+    static final CallOptions.Key<Integer> PARTITION = CallOptions.Key.create("urgence-partition");
+
+    /** A stub whose calls go to the node that owns {@code partition}. */
+    public static <S extends AbstractStub<S>> S toPartition(S stub, int partition) {
+        return stub.withOption(PARTITION, partition);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return 5;
+    }
+
+    @Override
+    public String getPolicyName() {
+        return POLICY;
+    }
+
+    @Override
+    public LoadBalancer newLoadBalancer(LoadBalancer.Helper helper) {
+        return new PartitionLoadBalancer(helper);
+    }
+}
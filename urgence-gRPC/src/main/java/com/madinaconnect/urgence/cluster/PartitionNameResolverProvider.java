@@ -0,0 +1,166 @@
+package com.madinaconnect.urgence.cluster;
+
+import io.grpc.Attributes;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves {@code urgence-partitions:///host0:port0,host1:port1,...} into one address group per
+ * node, tagged with its partition (the position in the list) for {@link PartitionLoadBalancer}.
+ * Registered through META-INF/services, like the resolvers that come with grpc-java.
+ * <p>
+ * A node whose host does not resolve yet (a pod that is still being scheduled) is left out, and
+ * resolution is retried until every node is known.
+ */
+public final class PartitionNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME = "urgence-partitions";
+
+    @EquivalentAddressGroup.Attr
+    static final Attributes.Key<Integer> PARTITION = Attributes.Key.create("urgence-partition");
+
+    // Sent as :authority; the target itself (a list of nodes) is not a valid one
+    private static final String AUTHORITY = "urgence";
+    private static final long RETRY_SECONDS = 5;
+
+    /** Channel target for the given node addresses, in partition order. */
+    public static String target(List<String> nodes) {
+        return SCHEME + ":///" + String.join(",", nodes);
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String path = targetUri.getPath();
+        if (path == null || path.length() <= 1) {
+            throw new IllegalArgumentException("No node in " + targetUri);
+        }
+        List<InetSocketAddress> nodes = new ArrayList<>();
+        for (String node : path.substring(1).split(",")) {
+            int colon = node.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Node " + node + " of " + targetUri + " is not host:port");
+            }
+            nodes.add(InetSocketAddress.createUnresolved(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1))));
+        }
+        return new PartitionNameResolver(targetUri.toString(), nodes, args);
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(InetSocketAddress.class);
+    }
+
+    private static final class PartitionNameResolver extends NameResolver {
+
+        private final String target;
+        private final List<InetSocketAddress> nodes;
+        private final Args args;
+        private final SynchronizationContext syncContext;
+
+        // Guarded by syncContext
+        private Listener2 listener;
+        private boolean resolving;
+        private boolean shutdown;
+        private SynchronizationContext.ScheduledHandle retry;
+
+        PartitionNameResolver(String target, List<InetSocketAddress> nodes, Args args) {
+            this.target = target;
+            this.nodes = nodes;
+            this.args = args;
+            this.syncContext = args.getSynchronizationContext();
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return AUTHORITY;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            if (retry != null) {
+                retry.cancel();
+            }
+        }
+
+        private void resolve() {
+            if (resolving || shutdown) {
+                return;
+            }
+            resolving = true;
+            if (retry != null) {
+                retry.cancel();
+                retry = null;
+            }
+            // DNS lookups block, so they run off the synchronization context
+            args.getOffloadExecutor().execute(() -> {
+                List<EquivalentAddressGroup> groups = new ArrayList<>(nodes.size());
+                for (int partition = 0; partition < nodes.size(); partition++) {
+                    InetSocketAddress node = nodes.get(partition);
+                    InetSocketAddress resolved = new InetSocketAddress(node.getHostString(), node.getPort());
+                    if (!resolved.isUnresolved()) {
+                        groups.add(new EquivalentAddressGroup(resolved,
+                                Attributes.newBuilder().set(PARTITION, partition).build()));
+                    }
+                }
+                syncContext.execute(() -> publish(groups));
+            });
+        }
+
+        private void publish(List<EquivalentAddressGroup> groups) {
+            resolving = false;
+            if (shutdown) {
+                return;
+            }
+            if (groups.isEmpty()) {
+                listener.onError(Status.UNAVAILABLE.withDescription("No urgence node resolves in " + target));
+            } else {
+                listener.onResult(ResolutionResult.newBuilder().setAddresses(groups).build());
+            }
+            if (groups.size() < nodes.size()) {
+                retry = syncContext.schedule(this::resolve, RETRY_SECONDS, TimeUnit.SECONDS,
+                        args.getScheduledExecutorService());
+            }
+        }
+    }
+}
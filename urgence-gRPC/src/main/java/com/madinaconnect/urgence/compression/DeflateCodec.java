@@ -0,0 +1,55 @@
+package com.madinaconnect.urgence.compression;
+
+import io.grpc.Codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The "deflate" message encoding of the gRPC spec (zlib format), at a configurable level.
+ * grpc-java only ships gzip, always at the default level 6; level 1 compresses several times
+ * faster for a somewhat larger output, a better trade for the CPU of a busy server.
+ */
+public final class DeflateCodec implements Codec {
+
+    public static final String ENCODING = "deflate";
+
+    private final int level;
+
+    public DeflateCodec(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Deflate level must be between 1 and 9, not " + level);
+        }
+        this.level = level;
+    }
+
+    @Override
+    public String getMessageEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(os, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // Only the stream's own default Deflater is released by close()
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        return new InflaterInputStream(is);
+    }
+}
@@ -0,0 +1,66 @@
+package com.madinaconnect.urgence.compression;
+
+import com.google.protobuf.MessageLite;
+import com.madinaconnect.urgence.config.TransportProperties;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Compresses responses with the first codec of urgence.transport.codecs that the client accepts
+ * (its grpc-accept-encoding header, sent by every grpc-java client with the codecs it can
+ * decompress). Clients that list none of them, like the co-located gateway, get uncompressed
+ * responses. Messages under urgence.transport.min-message-size are never compressed.
+ */
+@Component
+@GrpcGlobalServerInterceptor
+public class ResponseCompressionInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> ACCEPT_ENCODING =
+            Metadata.Key.of("grpc-accept-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final List<String> codecs;
+    private final long minMessageSize;
+
+    public ResponseCompressionInterceptor(TransportProperties properties) {
+        this.codecs = properties.getCodecs();
+        this.minMessageSize = properties.getMinMessageSize().toBytes();
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        String codec = negotiate(headers.get(ACCEPT_ENCODING));
+        if (codec == null) {
+            return next.startCall(call, headers);
+        }
+        call.setCompression(codec);
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(R message) {
+                // The size is computed once per message and cached by protobuf for the encoding
+                setMessageCompression(!(message instanceof MessageLite m) || m.getSerializedSize() >= minMessageSize);
+                super.sendMessage(message);
+            }
+        }, headers);
+    }
+
+    private String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || codecs.isEmpty()) {
+            return null;
+        }
+        List<String> accepted = List.of(acceptEncoding.split("\\s*,\\s*"));
+        for (String codec : codecs) {
+            if (accepted.contains(codec)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
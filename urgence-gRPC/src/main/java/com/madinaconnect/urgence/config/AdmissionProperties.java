@@ -0,0 +1,36 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control of the gRPC server (prefix "urgence.admission"), see AdmissionControlInterceptor.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Calls in flight allowed at once. The limit starts at initialLimit and then follows latency.
+    private int initialLimit = 32;
+    private int minLimit = 8;
+    private int maxLimit = 256;
+
+    // The limit shrinks once calls get slower than tolerance x the unloaded latency
+    private double latencyTolerance = 2.0;
+
+    // Completed unary calls per limit update
+    private int sampleWindow = 20;
+
+    // Share of the limit that lower priorities may use, so that the rest stays free for CreateAlert
+    private double normalShare = 0.8;
+    private double bulkShare = 0.25;
+
+    // CreateAlert rate per sender_cin (0 = unlimited), with bursts up to senderBurst alerts
+    private double senderAlertsPerMinute = 12;
+    private int senderBurst = 5;
+
+    // Senders tracked at once; beyond that the least recently seen start over with a full bucket
+    private int maxTrackedSenders = 100_000;
+}
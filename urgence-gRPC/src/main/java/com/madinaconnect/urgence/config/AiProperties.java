@@ -0,0 +1,30 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the LLM used by /api/chat (prefix "urgence.ai").
+ * Point the endpoint at a local stub to run tests or benchmarks without Gemini.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.ai")
+public class AiProperties {
+
+    // generateContent URL; the api key is appended as ?key=
+    private String endpoint = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
+    // Empty: the LLM is not called, /api/chat answers with the fallback sentence
+    private String apiKey = "";
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // Covers the whole exchange, from sending the prompt to reading the answer
+    private Duration readTimeout = Duration.ofSeconds(8);
+
+    // Calls allowed in flight at once; above that the caller gets the fallback sentence right away
+    private int maxConcurrentCalls = 16;
+
+    // Replies kept for repeated messages (LRU)
+    private int cacheSize = 256;
+}
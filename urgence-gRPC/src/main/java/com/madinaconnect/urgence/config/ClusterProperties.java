@@ -0,0 +1,30 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clustered mode (prefix "urgence.cluster"): alerts are partitioned across nodes, see AlertIds.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.cluster")
+public class ClusterProperties {
+
+    // gRPC address (host:port) of every node, in partition order. Empty: a single standalone node.
+    // Every node must list the same nodes; there is no rebalancing, so the count is fixed once data exists.
+    private List<String> nodes = new ArrayList<>();
+
+    // Partition owned by this node: index of its own address in nodes
+    private int partition = 0;
+
+    public boolean isClustered() {
+        return !nodes.isEmpty();
+    }
+
+    public int partitionCount() {
+        return isClustered() ? nodes.size() : 1;
+    }
+}
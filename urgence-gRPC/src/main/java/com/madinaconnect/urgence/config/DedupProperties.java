@@ -0,0 +1,28 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Duplicate suppression of CreateAlert / BatchCreateAlerts (prefix "urgence.dedup"),
+ * see RequestIdStore and IncidentMerger.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.dedup")
+public class DedupProperties {
+
+    // How long a request_id is remembered: a retry arriving later creates a new alert
+    private Duration requestIdWindow = Duration.ofHours(1);
+
+    // Request ids remembered at once; beyond that the oldest are forgotten early
+    private long maxRequestIds = 100_000;
+
+    // A report joins an open alert of the same type from another sender within this distance...
+    // (0 = never merge reports)
+    private double mergeRadiusMeters = 150;
+
+    // ...received at most this long before
+    private Duration mergeWindow = Duration.ofMinutes(10);
+}
@@ -0,0 +1,53 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the gRPC client used by the REST gateway (prefix "urgence.gateway").
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.gateway")
+public class GatewayProperties {
+
+    // Address of the gRPC server (host:port or any gRPC target URI)
+    private String target = "localhost:9090";
+
+    // When set, the gateway uses the in-process transport with this name instead of the network.
+    // Must match grpc.server.in-process-name of the co-located server.
+    private String inProcessName = "";
+
+    // Deadline for unary calls (create, get, update, chat)
+    private Duration deadline = Duration.ofSeconds(5);
+
+    // Deadline for streaming calls (list, batch upload)
+    private Duration streamDeadline = Duration.ofSeconds(30);
+
+    // Codec of the gateway's calls: batch uploads are compressed with it and responses accepted in it.
+    // Empty: uncompressed, right for a co-located server; gzip or deflate for remote nodes.
+    private String compression = "";
+
+    // Largest response accepted from the server, and the HTTP/2 receive window per stream
+    private DataSize maxInboundMessageSize = DataSize.ofMegabytes(4);
+    private DataSize flowControlWindow = DataSize.ofMegabytes(1);
+
+    private Duration keepAliveTime = Duration.ofSeconds(30);
+    private Duration keepAliveTimeout = Duration.ofSeconds(10);
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    // LiveChat sessions: one bidi stream per citizen, closed after this much inactivity
+    private Duration chatIdleTimeout = Duration.ofMinutes(5);
+
+    // Upper bound on open LiveChat streams; the least recently active one is closed beyond it
+    private int maxChatSessions = 1000;
+
+    // How long a browser SSE subscription to a chat stays open before it must reconnect
+    private Duration chatSseTimeout = Duration.ofMinutes(30);
+
+    // How long a dashboard SSE subscription to alert events stays open before it must reconnect
+    // (browsers resume from Last-Event-ID, so nothing is lost in between)
+    private Duration alertEventsSseTimeout = Duration.ofMinutes(30);
+}
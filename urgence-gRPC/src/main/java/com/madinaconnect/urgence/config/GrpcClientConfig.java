@@ -0,0 +1,63 @@
+package com.madinaconnect.urgence.config;
+
+import com.madinaconnect.urgence.cluster.PartitionLoadBalancerProvider;
+import com.madinaconnect.urgence.cluster.PartitionNameResolverProvider;
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shared gRPC channel for the whole gateway. A channel multiplexes all calls over
+ * a single HTTP/2 connection, so it is built once here instead of per controller.
+ * In clustered mode it holds one connection per node and routes calls by partition.
+ */
+@Configuration
+@EnableConfigurationProperties({GatewayProperties.class, ClusterProperties.class})
+public class GrpcClientConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ManagedChannel urgenceChannel(GatewayProperties properties, ClusterProperties cluster,
+                                         CompressorRegistry grpcCompressorRegistry,
+                                         DecompressorRegistry grpcDecompressorRegistry) {
+        // Without a codec the channel advertises none, so the server does not compress for it
+        DecompressorRegistry accepted = properties.getCompression().isEmpty()
+                ? DecompressorRegistry.emptyInstance().with(Codec.Identity.NONE, false)
+                : grpcDecompressorRegistry;
+        if (cluster.isClustered()) {
+            // The alerts are spread over every node, the local one included: no in-process shortcut
+            return network(PartitionNameResolverProvider.target(cluster.getNodes()), properties)
+                    .defaultLoadBalancingPolicy(PartitionLoadBalancerProvider.POLICY)
+                    .compressorRegistry(grpcCompressorRegistry)
+                    .decompressorRegistry(accepted)
+                    .build();
+        }
+        if (!properties.getInProcessName().isEmpty()) {
+            // Same JVM as the server: no sockets, no TCP loopback
+            return InProcessChannelBuilder.forName(properties.getInProcessName())
+                    .directExecutor()
+                    .build();
+        }
+        return network(properties.getTarget(), properties)
+                .compressorRegistry(grpcCompressorRegistry)
+                .decompressorRegistry(accepted)
+                .build();
+    }
+
+    private static NettyChannelBuilder network(String target, GatewayProperties properties) {
+        return NettyChannelBuilder.forTarget(target)
+                .usePlaintext()
+                .keepAliveTime(properties.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(properties.getKeepAliveTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .idleTimeout(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .maxInboundMessageSize((int) properties.getMaxInboundMessageSize().toBytes())
+                .flowControlWindow((int) properties.getFlowControlWindow().toBytes());
+    }
+}
@@ -0,0 +1,152 @@
+package com.madinaconnect.urgence.config;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Metrics for every gRPC call, whatever its type (unary, server/client streaming, bidi):
+ * <ul>
+ *   <li>{@code grpc.server.calls}: call duration histogram by method, type and status code
+ *   (for streams this is the stream duration);</li>
+ *   <li>{@code grpc.server.calls.active}: calls in flight by method;</li>
+ *   <li>{@code grpc.server.messages.received} / {@code .sent}: messages per call, by method.</li>
+ * </ul>
+ * Replaces the starter's MetricCollectingServerInterceptor (excluded in application.properties),
+ * which has neither in-flight calls nor per-stream message counts.
+ */
+@Component
+@GrpcGlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE) // Outermost, so that calls rejected by other interceptors are counted too
+public class GrpcMetricsInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry registry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        MethodDescriptor<Q, R> method = call.getMethodDescriptor();
+        MethodMeters methodMeters = meters.computeIfAbsent(method.getFullMethodName(),
+                name -> new MethodMeters(name, method.getType()));
+        CallRecorder recorder = new CallRecorder(methodMeters);
+
+        ServerCall<Q, R> countingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(R message) {
+                recorder.sent++;
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                recorder.finish(status.getCode());
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<Q> listener;
+        try {
+            listener = next.startCall(countingCall, headers);
+        } catch (RuntimeException e) {
+            recorder.finish(Status.Code.UNKNOWN);
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(Q message) {
+                recorder.received++;
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                // The client went away (or the deadline passed) before the server closed the call
+                recorder.finish(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    // Meters of one method, created on its first call (status-tagged timers on first use of each code)
+    private final class MethodMeters {
+        final String method;
+        final String type;
+        final AtomicInteger active;
+        final DistributionSummary received;
+        final DistributionSummary sent;
+        final Map<Status.Code, Timer> durations = new ConcurrentHashMap<>();
+
+        MethodMeters(String method, MethodDescriptor.MethodType type) {
+            this.method = method;
+            this.type = type.name();
+            Tags tags = Tags.of("method", method, "type", this.type);
+            this.active = registry.gauge("grpc.server.calls.active", tags, new AtomicInteger());
+            this.received = DistributionSummary.builder("grpc.server.messages.received")
+                    .description("Messages received per call")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.sent = DistributionSummary.builder("grpc.server.messages.sent")
+                    .description("Messages sent per call")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        Timer duration(Status.Code code) {
+            return durations.computeIfAbsent(code, c -> Timer.builder("grpc.server.calls")
+                    .description("Duration of gRPC calls, from start to close or cancellation")
+                    .tags("method", method, "type", type, "status", c.name())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    // State of one call. Each counter has a single writer (gRPC serializes each direction).
+    private static final class CallRecorder {
+        private final MethodMeters meters;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        volatile int received;
+        volatile int sent;
+
+        CallRecorder(MethodMeters meters) {
+            this.meters = meters;
+            meters.active.incrementAndGet();
+        }
+
+        void finish(Status.Code code) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            meters.active.decrementAndGet();
+            meters.duration(code).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meters.received.record(received);
+            meters.sent.record(sent);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.madinaconnect.urgence.config;
+
+import com.madinaconnect.urgence.compression.DeflateCodec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Codecs known to the gRPC server and to the gateway channel: gzip, identity and
+ * {@link DeflateCodec}. Also applies the server's flow-control window.
+ */
+@Configuration
+@EnableConfigurationProperties(TransportProperties.class)
+public class TransportConfig {
+
+    @Bean
+    public DeflateCodec deflateCodec(TransportProperties properties) {
+        return new DeflateCodec(properties.getDeflateLevel());
+    }
+
+    // Not the default instance: that one is shared by every channel and server of the JVM
+    @Bean
+    public CompressorRegistry grpcCompressorRegistry(DeflateCodec deflate) {
+        CompressorRegistry registry = CompressorRegistry.newEmptyInstance();
+        CompressorRegistry defaults = CompressorRegistry.getDefaultInstance();
+        registry.register(defaults.lookupCompressor("gzip"));
+        registry.register(defaults.lookupCompressor("identity"));
+        registry.register(deflate);
+        return registry;
+    }
+
+    @Bean
+    public DecompressorRegistry grpcDecompressorRegistry(DeflateCodec deflate) {
+        return DecompressorRegistry.getDefaultInstance().with(deflate, true);
+    }
+
+    @Bean
+    public GrpcServerConfigurer transportServerConfigurer(TransportProperties properties,
+                                                          CompressorRegistry grpcCompressorRegistry,
+                                                          DecompressorRegistry grpcDecompressorRegistry) {
+        return serverBuilder -> {
+            serverBuilder.compressorRegistry(grpcCompressorRegistry);
+            serverBuilder.decompressorRegistry(grpcDecompressorRegistry);
+            // The in-process server has no flow control
+            if (serverBuilder instanceof NettyServerBuilder netty) {
+                netty.flowControlWindow((int) properties.getFlowControlWindow().toBytes());
+            }
+        };
+    }
+}
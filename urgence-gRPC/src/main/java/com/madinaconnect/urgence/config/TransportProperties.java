@@ -0,0 +1,33 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message compression and HTTP/2 flow control of the gRPC server (prefix "urgence.transport"),
+ * see ResponseCompressionInterceptor. The maximum inbound message size is the starter's
+ * grpc.server.max-inbound-message-size.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.transport")
+public class TransportProperties {
+
+    // Codecs the server compresses responses with, by preference: the first one the client lists in
+    // grpc-accept-encoding is used. "gzip" or "deflate" (faster, see DeflateCodec); empty = never compress.
+    private List<String> codecs = new ArrayList<>(List.of("gzip"));
+
+    // Smaller messages are sent uncompressed: below a few hundred bytes the codec header and the
+    // empty dictionary cost more than they save
+    private DataSize minMessageSize = DataSize.ofKilobytes(1);
+
+    // Level of the "deflate" codec, 1 (fastest) to 9 (smallest)
+    private int deflateLevel = 1;
+
+    // HTTP/2 receive window per stream: how much a client may send (batch uploads) before the
+    // server reads it. Larger windows fill high-latency links (mobile) without waiting for acks.
+    private DataSize flowControlWindow = DataSize.ofMegabytes(1);
+}
@@ -0,0 +1,30 @@
+package com.madinaconnect.urgence.config;
+
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in virtual threads, switched on with spring.threads.virtual.enabled=true.
+ * Spring Boot then runs Tomcat (the REST gateway) on virtual threads; this class does the
+ * same for the gRPC server, whose service methods block on JPA/H2.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService grpcServiceExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-vt-", 0).factory());
+    }
+
+    @Bean
+    public GrpcServerConfigurer virtualThreadServerConfigurer(ExecutorService grpcServiceExecutor) {
+        return serverBuilder -> serverBuilder.executor(grpcServiceExecutor);
+    }
+}
@@ -0,0 +1,26 @@
+package com.madinaconnect.urgence.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Durable persistence mode (prefix "urgence.wal"), see AlertJournal.
+ */
+@Data
+@ConfigurationProperties(prefix = "urgence.wal")
+public class WalProperties {
+
+    // Off: alerts only live in the in-memory H2 database, as before
+    private boolean enabled = false;
+
+    // Must be on a persistent volume, and used by a single process at a time (it is locked)
+    private String directory = "data/wal";
+
+    // Size of each memory-mapped segment file; a record never spans two segments
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // Log written since the last snapshot that triggers the next one (see AlertJournal), rounded
+    // down to whole segments. With 64MB segments, a 1Gi volume holds 16 of them.
+    private DataSize compactAfter = DataSize.ofMegabytes(256);
+}
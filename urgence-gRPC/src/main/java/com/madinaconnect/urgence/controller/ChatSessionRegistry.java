@@ -0,0 +1,286 @@
+package com.madinaconnect.urgence.controller;
+
+import com.madinaconnect.urgence.config.GatewayProperties;
+import com.madinaconnect.urgence.grpc.ChatMessage;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one long-lived LiveChat bidi stream per citizen (keyed by CIN) instead of opening a
+ * new stream for every REST message. Each message is then a single frame on an existing stream.
+ * <p>
+ * Idle sessions are half-closed after chatIdleTimeout, and the number of open streams is capped
+ * by maxChatSessions.
+ * <p>
+ * Browsers follow a conversation over SSE via {@link #subscribe}, by the stream id that
+ * {@link #openStream} gave to whoever sent its messages: a random token, not the CIN, so that
+ * nobody else can listen in. Each conversation of a citizen gets its own stream id. A session
+ * followed by a browser that is still connected is not idle, even if nothing is sent.
+ */
+@Component
+public class ChatSessionRegistry {
+
+    private final UrgenceServiceGrpc.UrgenceServiceStub asyncStub;
+    private final GatewayProperties properties;
+    private final ConcurrentHashMap<String, ChatSession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ChatStream> streams = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "chat-session-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ChatSessionRegistry(ManagedChannel urgenceChannel, GatewayProperties properties) {
+        // No deadline: the stream lives as long as the session, replies are timed out individually
+        this.asyncStub = UrgenceServiceGrpc.newStub(urgenceChannel);
+        this.properties = properties;
+        long period = Math.max(1, properties.getChatIdleTimeout().toSeconds() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.SECONDS);
+    }
+
+    /** Sends one message on the citizen's stream and completes with the operator's reply. */
+    public CompletableFuture<ChatMessage> send(String senderCin, String text) {
+        ChatMessage message = ChatMessage.newBuilder()
+                .setSenderCin(senderCin)
+                .setMessage(text)
+                .setTimestamp(LocalDateTime.now().toString())
+                .build();
+        while (true) {
+            CompletableFuture<ChatMessage> reply = session(senderCin).send(message);
+            if (reply != null) {
+                return reply.orTimeout(properties.getDeadline().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            // The session was closed between lookup and send: open a fresh one
+        }
+    }
+
+    /**
+     * The stream id of a conversation of this citizen: {@code streamId} if it is one (sent back by
+     * the same browser), otherwise a new one.
+     */
+    public String openStream(String senderCin, String streamId) {
+        if (streamId != null) {
+            ChatStream existing = streams.get(streamId);
+            if (existing != null && existing.senderCin.equals(senderCin)) {
+                existing.lastActivity = System.nanoTime();
+                return streamId;
+            }
+        }
+        if (streams.size() >= properties.getMaxChatSessions()) {
+            streams.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastActivity))
+                    .filter(e -> streams.remove(e.getKey(), e.getValue()))
+                    .ifPresent(e -> e.getValue().completeAll());
+        }
+        byte[] token = new byte[16];
+        random.nextBytes(token);
+        String id = Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        streams.put(id, new ChatStream(senderCin));
+        return id;
+    }
+
+    /**
+     * Opens an SSE channel that receives the replies of the conversation, or returns null if the
+     * stream id is unknown (never issued, or forgotten after chatIdleTimeout without followers).
+     */
+    public SseEmitter subscribe(String streamId) {
+        ChatStream stream = streams.get(streamId);
+        if (stream == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(properties.getChatSseTimeout().toMillis());
+        stream.lastActivity = System.nanoTime();
+        stream.emitters.add(emitter);
+        Runnable remove = () -> stream.emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /** Pushes a message to the browsers following this conversation, if any. */
+    public void publish(String streamId, Object event) {
+        ChatStream stream = streams.get(streamId);
+        if (stream != null) {
+            stream.push(event);
+        }
+    }
+
+    public int openSessions() {
+        return sessions.size();
+    }
+
+    private ChatSession session(String senderCin) {
+        ChatSession existing = sessions.get(senderCin);
+        if (existing != null) {
+            return existing;
+        }
+        if (sessions.size() >= properties.getMaxChatSessions()) {
+            sessions.values().stream()
+                    .min(Comparator.comparingLong(s -> s.lastActivity))
+                    .ifPresent(ChatSession::close);
+        }
+        return sessions.computeIfAbsent(senderCin, ChatSession::new);
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long cutoff = now - properties.getChatIdleTimeout().toNanos();
+        Set<String> followed = new HashSet<>();
+        for (var entry : streams.entrySet()) {
+            ChatStream stream = entry.getValue();
+            if (stream.heartbeat()) {
+                stream.lastActivity = now;
+                followed.add(stream.senderCin);
+            } else if (stream.lastActivity - cutoff < 0) {
+                streams.remove(entry.getKey(), stream);
+            }
+        }
+        for (ChatSession session : sessions.values()) {
+            if (followed.contains(session.senderCin)) {
+                session.lastActivity = now;
+            } else if (session.lastActivity - cutoff < 0) {
+                session.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+        sessions.values().forEach(ChatSession::close);
+        streams.values().forEach(ChatStream::completeAll);
+    }
+
+    // The browsers following one conversation
+    private static final class ChatStream {
+        private final String senderCin;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile long lastActivity = System.nanoTime();
+
+        ChatStream(String senderCin) {
+            this.senderCin = Objects.requireNonNull(senderCin);
+        }
+
+        void push(Object event) {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("message").data(event));
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        }
+
+        // Pings the followers, dropping the ones whose browser went away; true if any is left
+        boolean heartbeat() {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+            return !emitters.isEmpty();
+        }
+
+        void completeAll() {
+            emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    private final class ChatSession implements StreamObserver<ChatMessage> {
+        private final String senderCin;
+        private final StreamObserver<ChatMessage> requestStream;
+        // The operator answers messages in order, so replies are matched FIFO
+        private final Queue<CompletableFuture<ChatMessage>> pendingReplies = new ArrayDeque<>();
+        private volatile long lastActivity = System.nanoTime();
+        private boolean closed = false;
+
+        ChatSession(String senderCin) {
+            this.senderCin = senderCin;
+            this.requestStream = asyncStub.liveChat(this);
+        }
+
+        // Returns null if the session is already closed
+        synchronized CompletableFuture<ChatMessage> send(ChatMessage message) {
+            if (closed) {
+                return null;
+            }
+            lastActivity = System.nanoTime();
+            CompletableFuture<ChatMessage> reply = new CompletableFuture<>();
+            pendingReplies.add(reply);
+            requestStream.onNext(message);
+            return reply;
+        }
+
+        // Half-close our side; the server then completes the stream
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            sessions.remove(senderCin, this);
+            requestStream.onCompleted();
+            failPending(Status.UNAVAILABLE.withDescription("Chat session closed").asRuntimeException());
+        }
+
+        @Override
+        public void onNext(ChatMessage reply) {
+            CompletableFuture<ChatMessage> pending;
+            synchronized (this) {
+                lastActivity = System.nanoTime();
+                pending = pendingReplies.poll();
+            }
+            if (pending != null) {
+                pending.complete(reply);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                closed = true;
+                sessions.remove(senderCin, this);
+                failPending(t);
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            onError(Status.UNAVAILABLE.withDescription("Chat ended by server").asRuntimeException());
+        }
+
+        // Caller holds the lock
+        private void failPending(Throwable t) {
+            CompletableFuture<ChatMessage> pending;
+            while ((pending = pendingReplies.poll()) != null) {
+                pending.completeExceptionally(t);
+            }
+        }
+    }
+}
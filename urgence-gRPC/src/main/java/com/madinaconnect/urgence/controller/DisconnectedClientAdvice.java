@@ -0,0 +1,21 @@
+package com.madinaconnect.urgence.controller;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Browsers leaving an SSE stream (alert events, chat replies). Tomcat notices on the next write
+ * and forwards the failure to the error page, where the request resumes with it: answered here,
+ * so that a client going away is not logged as a server error. The emitter's own callbacks have
+ * already released what the stream held.
+ */
+@RestControllerAdvice
+public class DisconnectedClientAdvice {
+
+    @ExceptionHandler(IOException.class)
+    public void clientGone(IOException e) {
+        // Nobody is left to answer
+    }
+}
@@ -3,17 +3,32 @@ package com.madinaconnect.urgence.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "alerts")
+@Table(name = "alerts", indexes = {
+        // Listings (see AlertListQuery): one index per ORDER BY it emits, i.e. per combination of
+        // equality filters (type, status, both, none) and direction. H2 never scans an index
+        // backwards: without its own index, a filtered oldest-first chunk walks idx_alerts_oldest.
+        // What they cost on inserts and status updates: ListingIndexWriteBenchmark.
+        @Index(name = "idx_alerts_type_status_newest", columnList = "type, status, timestamp DESC, id DESC"),
+        @Index(name = "idx_alerts_type_status_oldest", columnList = "type, status, timestamp, id"),
+        @Index(name = "idx_alerts_type_newest", columnList = "type, timestamp DESC, id DESC"),
+        @Index(name = "idx_alerts_type_oldest", columnList = "type, timestamp, id"),
+        @Index(name = "idx_alerts_status_newest", columnList = "status, timestamp DESC, id DESC"),
+        @Index(name = "idx_alerts_status_oldest", columnList = "status, timestamp, id"),
+        @Index(name = "idx_alerts_newest", columnList = "timestamp DESC, id DESC"),
+        // Also the default, unfiltered ListAlerts stream
+        @Index(name = "idx_alerts_oldest", columnList = "timestamp, id"),
+        // Nearby searches: cells covering the search area, optionally narrowed by status
+        @Index(name = "idx_alerts_geo_cell_status", columnList = "geo_cell, status")
+})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class AlertEntity {
+    // Assigned by AlertIds: in clustered mode it names the partition that owns the alert
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
     @Column(nullable = false)
@@ -26,6 +41,10 @@ public class AlertEntity {
     private double latitude;
     private double longitude;
 
+    // Grid cell of (latitude, longitude), see GeoCell. Maintained automatically on save.
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
     @Column(length = 500)
     private String description;
 
@@ -33,4 +52,31 @@ public class AlertEntity {
     private AlertStatus status;
 
     private LocalDateTime timestamp;
-}
\ No newline at end of file
+
+    // Citizen reports merged into this alert (see IncidentMerger). The DB default covers plain SQL inserts.
+    @Column(name = "report_count", nullable = false)
+    @ColumnDefault("1")
+    private int reportCount = 1;
+
+    // Optimistic lock: bumped by every update, including AlertRepository.transitionStatus
+    @Version
+    private Long version;
+
+    public AlertEntity(String id, String type, String senderCin, double latitude, double longitude,
+                       String description, AlertStatus status, LocalDateTime timestamp) {
+        this.id = id;
+        this.type = type;
+        this.senderCin = senderCin;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.description = description;
+        this.status = status;
+        this.timestamp = timestamp;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateGeoCell() {
+        this.geoCell = GeoCell.of(latitude, longitude);
+    }
+}
@@ -0,0 +1,49 @@
+package com.madinaconnect.urgence.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A citizen's report merged into an existing alert (see IncidentMerger). The first report is the
+// alert itself; these are the following ones, numbered like the alert's report_count.
+@Entity
+@Table(name = "alert_reports", indexes = {
+        @Index(name = "idx_alert_reports_alert", columnList = "alert_id, report_number")
+})
+@Data
+@NoArgsConstructor
+public class AlertReport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "alert_id", nullable = false)
+    private String alertId;
+
+    // The alert's report_count once this report was added: 2 for the first merged report
+    @Column(name = "report_number", nullable = false)
+    private int reportNumber;
+
+    @Column(length = 8)
+    private String senderCin;
+
+    @Column(length = 500)
+    private String description;
+
+    private double latitude;
+    private double longitude;
+
+    private LocalDateTime timestamp;
+
+    public AlertReport(String alertId, int reportNumber, String senderCin, String description,
+                       double latitude, double longitude, LocalDateTime timestamp) {
+        this.alertId = alertId;
+        this.reportNumber = reportNumber;
+        this.senderCin = senderCin;
+        this.description = description;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+}
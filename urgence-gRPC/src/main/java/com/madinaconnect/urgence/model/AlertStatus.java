@@ -1,8 +1,32 @@
 package com.madinaconnect.urgence.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum AlertStatus {
     PENDING,
     IN_PROGRESS,
     RESOLVED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    // Lifecycle of an alert. A resolved alert can be reopened; a cancelled one is final.
+    public boolean canTransitionTo(AlertStatus next) {
+        return switch (this) {
+            case PENDING -> next == IN_PROGRESS || next == RESOLVED || next == CANCELLED;
+            case IN_PROGRESS -> next == PENDING || next == RESOLVED || next == CANCELLED;
+            case RESOLVED -> next == IN_PROGRESS;
+            case CANCELLED -> false;
+        };
+    }
+
+    // The statuses an alert may be in to move to next
+    public static Set<AlertStatus> allowedBefore(AlertStatus next) {
+        Set<AlertStatus> from = EnumSet.noneOf(AlertStatus.class);
+        for (AlertStatus status : values()) {
+            if (status.canTransitionTo(next)) {
+                from.add(status);
+            }
+        }
+        return from;
+    }
+}
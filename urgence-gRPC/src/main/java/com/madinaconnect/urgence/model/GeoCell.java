@@ -0,0 +1,74 @@
+package com.madinaconnect.urgence.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed grid over the globe used to index alert positions.
+ * A cell is {@link #CELL_DEGREES} wide in latitude and longitude (about 1.1 km x 0.9 km in Tunisia),
+ * numbered row by row, so a position maps to a single long that the DB can index.
+ */
+public final class GeoCell {
+
+    public static final double CELL_DEGREES = 0.01;
+    private static final long COLUMNS = Math.round(360 / CELL_DEGREES);
+
+    private GeoCell() {
+    }
+
+    public static long of(double latitude, double longitude) {
+        return row(latitude) * COLUMNS + column(longitude);
+    }
+
+    /** Cells firstCell..lastCell, consecutive cells of one grid row, which spans minLatitude..maxLatitude. */
+    public record Row(long firstCell, long lastCell, double minLatitude, double maxLatitude) {
+    }
+
+    /**
+     * All cells intersecting the box, or null if there are more than maxCells
+     * (the caller should then read the box row by row, see {@link #rows}).
+     * Boxes crossing the antimeridian are not supported.
+     */
+    public static List<Long> covering(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        long firstRow = row(minLat), lastRow = row(maxLat);
+        long firstCol = column(minLon), lastCol = column(maxLon);
+        long count = (lastRow - firstRow + 1) * (lastCol - firstCol + 1);
+        if (count > maxCells) {
+            return null;
+        }
+        List<Long> cells = new ArrayList<>((int) count);
+        for (long r = firstRow; r <= lastRow; r++) {
+            for (long c = firstCol; c <= lastCol; c++) {
+                cells.add(r * COLUMNS + c);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * The cells intersecting the box, as one range of cell numbers per grid row, south to north.
+     * Boxes crossing the antimeridian are not supported.
+     */
+    public static List<Row> rows(double minLat, double minLon, double maxLat, double maxLon) {
+        long firstRow = row(minLat), lastRow = row(maxLat);
+        long firstCol = column(minLon), lastCol = column(maxLon);
+        List<Row> rows = new ArrayList<>((int) (lastRow - firstRow + 1));
+        for (long r = firstRow; r <= lastRow; r++) {
+            double south = r * CELL_DEGREES - 90;
+            rows.add(new Row(r * COLUMNS + firstCol, r * COLUMNS + lastCol, south, south + CELL_DEGREES));
+        }
+        return rows;
+    }
+
+    private static long row(double latitude) {
+        return (long) Math.floor((clamp(latitude, -90, 90) + 90) / CELL_DEGREES);
+    }
+
+    private static long column(double longitude) {
+        return Math.min(COLUMNS - 1, (long) Math.floor((clamp(longitude, -180, 180) + 180) / CELL_DEGREES));
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
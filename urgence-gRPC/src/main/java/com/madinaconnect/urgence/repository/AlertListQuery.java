@@ -0,0 +1,97 @@
+package com.madinaconnect.urgence.repository;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A ListAlerts listing: optional type / status / [since, until) filters, ordered by (timestamp, id).
+ * <p>
+ * The SQL is shaped so that H2 can read the first rows straight from the composite indexes
+ * declared on AlertEntity (one for each ORDER BY below) instead of sorting every match:
+ * <ul>
+ *   <li>only the filters that are set appear in the WHERE clause ("(:x IS NULL OR ...)" hides the column);</li>
+ *   <li>the ORDER BY starts with the columns filtered by equality, because H2 only uses an index for
+ *   ordering when the ORDER BY matches its leading columns and their directions exactly;</li>
+ *   <li>the keyset condition carries a plain range bound on timestamp, since the OR alone forces a table scan.</li>
+ * </ul>
+ *
+ * @param type   null = any type
+ * @param status null = any status
+ * @param since  inclusive lower bound, null = none
+ * @param until  exclusive upper bound, null = none
+ */
+public record AlertListQuery(String type, AlertStatus status, LocalDateTime since, LocalDateTime until,
+                             boolean newestFirst) {
+
+    /** The default ListAlerts listing: everything, oldest first. */
+    public static final AlertListQuery UNFILTERED = new AlertListQuery(null, null, null, null, false);
+
+    /**
+     * Order and filters of this listing, carried by its cursors so that a cursor is only resumed in
+     * the listing it was issued for. Stable across nodes and restarts.
+     */
+    public String fingerprint() {
+        CRC32 crc = new CRC32();
+        crc.update((type + "|" + status + "|" + since + "|" + until).getBytes(StandardCharsets.UTF_8));
+        return (newestFirst ? "N" : "O") + Long.toHexString(crc.getValue());
+    }
+
+    /** Rows of this listing, strictly after (afterTimestamp, afterId) when a position is given. */
+    public Specification<AlertEntity> toSpecification(LocalDateTime afterTimestamp, String afterId) {
+        return (root, query, cb) -> {
+            query.orderBy(order(root, cb));
+            List<Predicate> predicates = new ArrayList<>(6);
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            Path<LocalDateTime> timestamp = root.get("timestamp");
+            if (since != null) {
+                predicates.add(cb.greaterThanOrEqualTo(timestamp, since));
+            }
+            if (until != null) {
+                predicates.add(cb.lessThan(timestamp, until));
+            }
+            if (afterTimestamp != null) {
+                Path<String> id = root.get("id");
+                predicates.add(newestFirst
+                        ? cb.lessThanOrEqualTo(timestamp, afterTimestamp)
+                        : cb.greaterThanOrEqualTo(timestamp, afterTimestamp));
+                predicates.add(newestFirst
+                        ? cb.or(cb.lessThan(timestamp, afterTimestamp),
+                                cb.and(cb.equal(timestamp, afterTimestamp), cb.lessThan(id, afterId)))
+                        : cb.or(cb.greaterThan(timestamp, afterTimestamp),
+                                cb.and(cb.equal(timestamp, afterTimestamp), cb.greaterThan(id, afterId))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private List<Order> order(Root<AlertEntity> root, CriteriaBuilder cb) {
+        List<Order> order = new ArrayList<>(4);
+        // Constant within the result, so they don't change it; they only let H2 match the index
+        if (type != null) {
+            order.add(cb.asc(root.get("type")));
+        }
+        if (status != null) {
+            order.add(cb.asc(root.get("status")));
+        }
+        order.add(newestFirst ? cb.desc(root.get("timestamp")) : cb.asc(root.get("timestamp")));
+        order.add(newestFirst ? cb.desc(root.get("id")) : cb.asc(root.get("id")));
+        return order;
+    }
+}
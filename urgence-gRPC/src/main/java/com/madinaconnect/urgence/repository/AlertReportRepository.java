@@ -0,0 +1,13 @@
+package com.madinaconnect.urgence.repository;
+
+import com.madinaconnect.urgence.model.AlertReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertReportRepository extends JpaRepository<AlertReport, Long> {
+    // Reports merged into an alert, in the order they arrived
+    List<AlertReport> findByAlertIdOrderByReportNumber(String alertId);
+}
@@ -1,13 +1,73 @@
 package com.madinaconnect.urgence.repository;
 
 import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+// Listings (ListAlerts) are built as specifications by AlertListQuery, so that they can use the indexes
 @Repository
-public interface AlertRepository extends JpaRepository<AlertEntity, String> {
+public interface AlertRepository extends JpaRepository<AlertEntity, String>, JpaSpecificationExecutor<AlertEntity> {
     // Custom finder to filter by type
     List<AlertEntity> findByType(String type);
-}
\ No newline at end of file
+
+    // Nearby search through the geo_cell index; the box bounds trim the edges of the border cells
+    @Query("SELECT a FROM AlertEntity a WHERE a.geoCell IN :cells " +
+            "AND a.latitude BETWEEN :minLat AND :maxLat AND a.longitude BETWEEN :minLon AND :maxLon " +
+            "AND (:status IS NULL OR a.status = :status) AND (:type IS NULL OR a.type = :type)")
+    List<AlertEntity> findInCells(@Param("cells") Collection<Long> cells,
+                                  @Param("minLat") double minLat, @Param("minLon") double minLon,
+                                  @Param("maxLat") double maxLat, @Param("maxLon") double maxLon,
+                                  @Param("status") AlertStatus status, @Param("type") String type,
+                                  Limit limit);
+
+    // Same search over a range of consecutive cells (one row of the grid, see GeoCell.rows),
+    // read as a range of the geo_cell index. Used when the area covers too many cells for an IN list.
+    @Query("SELECT a FROM AlertEntity a WHERE a.geoCell BETWEEN :firstCell AND :lastCell " +
+            "AND a.latitude BETWEEN :minLat AND :maxLat AND a.longitude BETWEEN :minLon AND :maxLon " +
+            "AND (:status IS NULL OR a.status = :status) AND (:type IS NULL OR a.type = :type)")
+    List<AlertEntity> findInCellRange(@Param("firstCell") long firstCell, @Param("lastCell") long lastCell,
+                                      @Param("minLat") double minLat, @Param("minLon") double minLon,
+                                      @Param("maxLat") double maxLat, @Param("maxLon") double maxLon,
+                                      @Param("status") AlertStatus status, @Param("type") String type,
+                                      Limit limit);
+
+    // Status change as one conditional UPDATE (no SELECT first): it only applies if the alert is
+    // still in one of the from statuses, so concurrent dispatchers cannot overwrite each other.
+    // Returns the number of rows changed, 0 if the alert is missing or no longer in a from status.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE AlertEntity a SET a.status = :next, a.version = a.version + 1 " +
+            "WHERE a.id = :id AND a.status IN :from")
+    int transitionStatus(@Param("id") String id, @Param("from") Collection<AlertStatus> from,
+                         @Param("next") AlertStatus next);
+
+    // Open alerts of a type near a position and received since a given time: candidates for a
+    // duplicate report (see IncidentMerger). Same cells + box filtering as findInCells.
+    @Query("SELECT a FROM AlertEntity a WHERE a.geoCell IN :cells " +
+            "AND a.latitude BETWEEN :minLat AND :maxLat AND a.longitude BETWEEN :minLon AND :maxLon " +
+            "AND a.status IN :statuses AND a.type = :type AND a.timestamp >= :since")
+    List<AlertEntity> findRecentInCells(@Param("cells") Collection<Long> cells,
+                                        @Param("minLat") double minLat, @Param("minLon") double minLon,
+                                        @Param("maxLat") double maxLat, @Param("maxLon") double maxLon,
+                                        @Param("statuses") Collection<AlertStatus> statuses,
+                                        @Param("type") String type, @Param("since") LocalDateTime since);
+
+    // One more report for an alert, as a conditional UPDATE like transitionStatus: it only applies
+    // while the alert is still in one of the given statuses. Returns the number of rows changed.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE AlertEntity a SET a.reportCount = a.reportCount + 1, a.version = a.version + 1 " +
+            "WHERE a.id = :id AND a.status IN :statuses")
+    int addReport(@Param("id") String id, @Param("statuses") Collection<AlertStatus> statuses);
+}
@@ -0,0 +1,63 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Persists alerts in chunks: one transaction and one JDBC batch per chunk
+ * (see hibernate.jdbc.batch_size), instead of one commit per alert.
+ * Ids are assigned in memory (AlertIds), so inserts need no round trip to get an id.
+ */
+@Service
+public class AlertBatchWriter {
+
+    private final AlertRepository alertRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AlertBatchWriter(AlertRepository alertRepository, PlatformTransactionManager transactionManager) {
+        this.alertRepository = alertRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Saves the whole chunk in a single transaction. If that fails, the chunk is retried
+     * item by item so that one bad row does not take the others down with it.
+     *
+     * @param onFailure called with (position in chunk, reason) for every alert that could not be saved
+     * @return the alerts that were saved
+     */
+    public List<AlertEntity> saveChunk(List<AlertEntity> chunk, BiConsumer<Integer, String> onFailure) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> alertRepository.saveAll(chunk));
+            return List.copyOf(chunk);
+        } catch (RuntimeException batchFailure) {
+            return saveOneByOne(chunk, onFailure);
+        }
+    }
+
+    private List<AlertEntity> saveOneByOne(List<AlertEntity> chunk, BiConsumer<Integer, String> onFailure) {
+        List<AlertEntity> saved = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            AlertEntity entity = chunk.get(i);
+            // The failed batch already assigned a version; clear it so the retry is a fresh insert
+            entity.setVersion(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> alertRepository.save(entity));
+                saved.add(entity);
+            } catch (RuntimeException e) {
+                onFailure.accept(i, "Could not be saved (" + e.getClass().getSimpleName() + ")");
+            }
+        }
+        return saved;
+    }
+}
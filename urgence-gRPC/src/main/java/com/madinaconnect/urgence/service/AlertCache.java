@@ -0,0 +1,61 @@
+package com.madinaconnect.urgence.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read cache of ready-to-send AlertResponse messages, keyed by alert id, for GetAlert:
+ * dispatch consoles poll the same few active alerts over and over.
+ * <p>
+ * Write-through, never write-behind: the database stays the source of truth and every write
+ * commits first. Coherence rule for writers: commit, then {@link #invalidate}, then acknowledge.
+ * Loads run inside the cache's per-key computation and an invalidation of the same key waits
+ * for a load in progress, so a value read from the database before the commit cannot be
+ * stored after the invalidation. Writers invalidate rather than put: two concurrent updates
+ * could otherwise store their results in the opposite order of their commits.
+ * <p>
+ * The TTL only bounds how long a write made outside this service (H2 console, SQL) stays invisible.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size with cache="alerts".
+ */
+@Component
+public class AlertCache {
+
+    private final Cache<String, AlertResponse> cache;
+
+    public AlertCache(@Value("${urgence.cache.alerts.maximum-size:10000}") long maximumSize,
+                      @Value("${urgence.cache.alerts.ttl:60s}") Duration ttl,
+                      MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "alerts");
+    }
+
+    /** Cached response, or the loader's result (null = no such alert, which is not cached). */
+    public AlertResponse get(String alertId, Function<String, AlertResponse> loader) {
+        return cache.get(alertId, loader);
+    }
+
+    /**
+     * Seeds the cache with a freshly created alert. Only safe for a new id: nobody can have
+     * updated an alert whose id has not been handed out yet.
+     */
+    public void putCreated(AlertResponse alert) {
+        cache.put(alert.getAlertId(), alert);
+    }
+
+    /** Call after the write has committed and before it is acknowledged. */
+    public void invalidate(String alertId) {
+        cache.invalidate(alertId);
+    }
+}
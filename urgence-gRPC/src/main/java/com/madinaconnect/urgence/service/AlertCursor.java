@@ -0,0 +1,55 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position inside a listing of the alerts table, ordered by (timestamp, id).
+ * Sent to clients as an opaque base64 string so they can resume a ListAlerts stream. It also
+ * carries the listing's {@link AlertListQuery#fingerprint()}: resumed with another order or
+ * other filters, the position would make the stream skip or repeat alerts, so it is refused.
+ */
+record AlertCursor(LocalDateTime timestamp, String id, String listing) {
+
+    private static final char SEPARATOR = '|';
+
+    static AlertCursor of(AlertEntity entity, AlertListQuery listing) {
+        return new AlertCursor(entity.getTimestamp(), entity.getId(), listing.fingerprint());
+    }
+
+    String encode() {
+        String raw = timestamp + String.valueOf(SEPARATOR) + id + SEPARATOR + listing;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null when the client sent none (start from the beginning)
+     * @throws IllegalArgumentException if the cursor is not one we produced, or was produced for
+     *                                  another order or other filters than {@code listing}
+     */
+    static AlertCursor decode(String encoded, AlertListQuery listing) {
+        if (encoded == null || encoded.isEmpty()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        int sep = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (sep <= 0 || last <= sep + 1 || last == raw.length() - 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!raw.substring(last + 1).equals(listing.fingerprint())) {
+            throw new IllegalArgumentException("Cursor of a listing with another order or other filters");
+        }
+        try {
+            return new AlertCursor(LocalDateTime.parse(raw.substring(0, sep)), raw.substring(sep + 1, last),
+                    listing.fingerprint());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor timestamp", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertEvent;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.SubscribeAlertsRequest;
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory fan-out of alert changes to SubscribeAlerts streams.
+ * <p>
+ * Every published change gets the next sequence number and is kept in a bounded history,
+ * so a client reconnecting with resume_after_sequence gets what it missed. Each subscriber
+ * has its own bounded buffer: a slow dashboard loses (or coalesces) its own events and
+ * never slows down publishers or other subscribers.
+ */
+@Component
+public class AlertEventBus {
+
+    public static final String CREATED = "CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    // Another citizen's report was merged into the alert (report_count went up)
+    public static final String REPORTED = "REPORTED";
+    public static final String RESYNC = "RESYNC";
+    public static final String SUBSCRIBED = "SUBSCRIBED";
+
+    public enum OverflowPolicy {
+        // When the buffer is full, the oldest pending event is dropped
+        DROP_OLDEST,
+        // Pending events for the same alert are merged into the latest one; when full, the oldest is dropped
+        COALESCE
+    }
+
+    private final int bufferSize;
+    private final int historySize;
+    private final OverflowPolicy overflowPolicy;
+
+    private final ArrayDeque<AlertEvent> history = new ArrayDeque<>();
+    private final Set<AlertSubscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveryExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "alert-bus-delivery");
+        t.setDaemon(true);
+        return t;
+    });
+    private long sequence = 0; // guarded by this
+
+    public AlertEventBus(@Value("${urgence.subscriptions.buffer-size:256}") int bufferSize,
+                         @Value("${urgence.subscriptions.history-size:10000}") int historySize,
+                         @Value("${urgence.subscriptions.overflow:COALESCE}") OverflowPolicy overflowPolicy) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void publish(String kind, AlertResponse alert) {
+        synchronized (this) {
+            AlertEvent event = AlertEvent.newBuilder()
+                    .setSequence(++sequence)
+                    .setKind(kind)
+                    .setAlert(alert)
+                    .build();
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (AlertSubscription subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /** Creates a subscription; call {@link #register} once the stream handlers are installed. */
+    AlertSubscription newSubscription(SubscribeAlertsRequest request, ServerCallStreamObserver<AlertEvent> observer) {
+        return new AlertSubscription(request, observer, bufferSize, overflowPolicy, deliveryExecutor);
+    }
+
+    /** Replays the history after resume_after_sequence, then starts live delivery. */
+    void register(AlertSubscription subscription, long resumeAfter) {
+        synchronized (this) {
+            if (resumeAfter > 0) {
+                long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().getSequence();
+                if (resumeAfter > sequence) {
+                    // Sequence from before a server restart: we can't tell what was missed
+                    subscription.offerResync(sequence, 1);
+                } else if (resumeAfter + 1 < oldest) {
+                    subscription.offerResync(sequence, oldest - resumeAfter - 1);
+                }
+                for (AlertEvent event : history) {
+                    if (event.getSequence() > resumeAfter) {
+                        subscription.offer(event);
+                    }
+                }
+            } else if (subscription.announcesSequence()) {
+                subscription.offerSubscribed(sequence);
+            }
+            subscribers.add(subscription);
+        }
+    }
+
+    void unregister(AlertSubscription subscription) {
+        subscribers.remove(subscription);
+        subscription.cancel();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,93 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams the alerts table chunk by chunk using keyset pagination.
+ * Only one chunk is held in memory, and we only read the next chunk when gRPC
+ * says the client can take more (isReady), so a slow client never makes us buffer the table.
+ * <p>
+ * Installed as the onReady handler: gRPC calls it serially, so no locking is needed.
+ */
+class AlertPageStreamer implements Runnable {
+
+    private final ServerCallStreamObserver<AlertResponse> observer;
+    private final AlertRepository repository;
+    private final Function<AlertEntity, AlertResponse> mapper;
+    private final AlertListQuery listing;
+    private final int pageSize;      // 0 = no limit
+    private final int chunkSize;
+
+    private final ArrayDeque<AlertEntity> buffer = new ArrayDeque<>();
+    private AlertCursor cursor;
+    private int sent = 0;
+    private boolean exhausted = false;
+    private volatile boolean done = false;
+
+    AlertPageStreamer(ServerCallStreamObserver<AlertResponse> observer, AlertRepository repository,
+                      Function<AlertEntity, AlertResponse> mapper, AlertListQuery listing,
+                      AlertCursor start, int pageSize, int chunkSize) {
+        this.observer = observer;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.listing = listing;
+        this.cursor = start;
+        this.pageSize = pageSize;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!done && observer.isReady()) {
+                if (buffer.isEmpty() && !fetchNextChunk()) {
+                    done = true;
+                    observer.onCompleted();
+                    return;
+                }
+                observer.onNext(mapper.apply(buffer.poll()));
+                sent++;
+            }
+        } catch (RuntimeException e) {
+            done = true;
+            observer.onError(Status.INTERNAL.withDescription("Failed to list alerts").withCause(e).asRuntimeException());
+        }
+    }
+
+    void cancel() {
+        done = true;
+        buffer.clear();
+    }
+
+    // Loads the next chunk into the buffer. Returns false once there is nothing left to send.
+    private boolean fetchNextChunk() {
+        int remaining = pageSize > 0 ? pageSize - sent : Integer.MAX_VALUE;
+        if (exhausted || remaining <= 0) {
+            return false;
+        }
+        int size = Math.min(chunkSize, remaining);
+        Specification<AlertEntity> spec = cursor == null
+                ? listing.toSpecification(null, null)
+                : listing.toSpecification(cursor.timestamp(), cursor.id());
+        List<AlertEntity> chunk = repository.findBy(spec, query -> query.limit(size).all());
+        if (chunk.size() < size) {
+            exhausted = true;
+        }
+        if (chunk.isEmpty()) {
+            return false;
+        }
+        cursor = AlertCursor.of(chunk.get(chunk.size() - 1), listing);
+        buffer.addAll(chunk);
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertEvent;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.BoundingBox;
+import com.madinaconnect.urgence.grpc.SubscribeAlertsRequest;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SubscribeAlerts stream: a filter plus a bounded buffer of pending events.
+ * Publishers only touch the buffer; writing to the stream happens on the delivery executor,
+ * one drain at a time, and only while gRPC reports the client ready.
+ */
+class AlertSubscription {
+
+    private static final String RESYNC_KEY = "resync";
+    private static final String SUBSCRIBED_KEY = "subscribed";
+
+    private final SubscribeAlertsRequest filter;
+    private final ServerCallStreamObserver<AlertEvent> observer;
+    private final int capacity;
+    private final AlertEventBus.OverflowPolicy policy;
+    private final Executor executor;
+
+    // Pending events in publish order, keyed by alert id (COALESCE) or sequence (DROP_OLDEST)
+    private final LinkedHashMap<Object, AlertEvent> buffer = new LinkedHashMap<>(); // guarded by this
+    private long missed = 0; // guarded by this
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean cancelled = false;
+
+    AlertSubscription(SubscribeAlertsRequest filter, ServerCallStreamObserver<AlertEvent> observer, int capacity,
+                      AlertEventBus.OverflowPolicy policy, Executor executor) {
+        this.filter = filter;
+        this.observer = observer;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    void offer(AlertEvent event) {
+        if (cancelled || !matches(event.getAlert())) {
+            return;
+        }
+        Object key = policy == AlertEventBus.OverflowPolicy.COALESCE
+                ? event.getAlert().getAlertId()
+                : Long.valueOf(event.getSequence());
+        synchronized (this) {
+            // Re-inserting moves the newer state of the same alert to the end of the queue
+            if (buffer.remove(key) == null && buffer.size() >= capacity) {
+                Iterator<AlertEvent> eldest = buffer.values().iterator();
+                eldest.next();
+                eldest.remove();
+                missed++;
+            }
+            buffer.put(key, event);
+        }
+        scheduleDrain();
+    }
+
+    void offerResync(long currentSequence, long missedEvents) {
+        synchronized (this) {
+            buffer.put(RESYNC_KEY, AlertEvent.newBuilder()
+                    .setSequence(currentSequence)
+                    .setKind(AlertEventBus.RESYNC)
+                    .setMissedEvents(missedEvents)
+                    .build());
+        }
+        scheduleDrain();
+    }
+
+    boolean announcesSequence() {
+        return filter.getAnnounceSequence();
+    }
+
+    // Offered before anything else, so that it is the first event of the stream
+    void offerSubscribed(long currentSequence) {
+        synchronized (this) {
+            buffer.put(SUBSCRIBED_KEY, AlertEvent.newBuilder()
+                    .setSequence(currentSequence)
+                    .setKind(AlertEventBus.SUBSCRIBED)
+                    .build());
+        }
+        scheduleDrain();
+    }
+
+    void scheduleDrain() {
+        if (!cancelled && !draining.get()) {
+            executor.execute(this::drain);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            buffer.clear();
+        }
+    }
+
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (!cancelled && observer.isReady()) {
+                AlertEvent next;
+                synchronized (this) {
+                    Iterator<Map.Entry<Object, AlertEvent>> it = buffer.entrySet().iterator();
+                    if (!it.hasNext()) {
+                        break;
+                    }
+                    next = it.next().getValue();
+                    it.remove();
+                    if (missed > 0) {
+                        next = next.toBuilder().setMissedEvents(next.getMissedEvents() + missed).build();
+                        missed = 0;
+                    }
+                }
+                observer.onNext(next);
+            }
+        } catch (RuntimeException e) {
+            // Stream already closed by the client; the cancel handler unregisters us
+            cancelled = true;
+        } finally {
+            draining.set(false);
+        }
+        // An event may have arrived after we stopped looking
+        boolean pending;
+        synchronized (this) {
+            pending = !buffer.isEmpty();
+        }
+        if (pending && !cancelled && observer.isReady()) {
+            scheduleDrain();
+        }
+    }
+
+    private boolean matches(AlertResponse alert) {
+        if (!filter.getTypeFilter().isEmpty() && !filter.getTypeFilter().equals(alert.getType())) {
+            return false;
+        }
+        if (!filter.getStatusFilter().isEmpty() && !filter.getStatusFilter().equals(alert.getStatus())) {
+            return false;
+        }
+        if (filter.hasRegion()) {
+            BoundingBox box = filter.getRegion();
+            return alert.getLatitude() >= box.getMinLatitude() && alert.getLatitude() <= box.getMaxLatitude()
+                    && alert.getLongitude() >= box.getMinLongitude() && alert.getLongitude() <= box.getMaxLongitude();
+        }
+        return true;
+    }
+}
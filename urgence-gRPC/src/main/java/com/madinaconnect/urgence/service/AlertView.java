@@ -0,0 +1,165 @@
+package com.madinaconnect.urgence.service;
+
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.AlertStatusCode;
+import com.madinaconnect.urgence.grpc.AlertTypeCode;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The AlertResponse fields a caller asked for with a read_mask. Only those fields are filled
+ * in, so a list screen that skips descriptions does not pay for copying, encoding or sending them.
+ * Without a mask a caller gets {@link #LEGACY}, the string fields every client already knows
+ * plus report_count.
+ */
+final class AlertView {
+
+    static final AlertView LEGACY = new AlertView(bits(
+            AlertResponse.ALERT_ID_FIELD_NUMBER, AlertResponse.TYPE_FIELD_NUMBER,
+            AlertResponse.LATITUDE_FIELD_NUMBER, AlertResponse.LONGITUDE_FIELD_NUMBER,
+            AlertResponse.DESCRIPTION_FIELD_NUMBER, AlertResponse.STATUS_FIELD_NUMBER,
+            AlertResponse.RECEIVED_TIMESTAMP_FIELD_NUMBER, AlertResponse.SENDER_CIN_FIELD_NUMBER,
+            AlertResponse.CURSOR_FIELD_NUMBER, AlertResponse.REPORT_COUNT_FIELD_NUMBER));
+
+    private static final Map<String, AlertTypeCode> TYPE_CODES = new HashMap<>();
+
+    static {
+        for (AlertTypeCode code : AlertTypeCode.values()) {
+            if (code.ordinal() > AlertTypeCode.TYPE_OTHER.ordinal() && code != AlertTypeCode.UNRECOGNIZED) {
+                TYPE_CODES.put(code.name(), code);
+            }
+        }
+    }
+
+    // Bit n set = field number n requested
+    private final long fields;
+
+    private AlertView(long fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a path is not an AlertResponse field
+     */
+    static AlertView of(FieldMask mask) {
+        if (mask.getPathsCount() == 0) {
+            return LEGACY;
+        }
+        long fields = 0;
+        for (String path : mask.getPathsList()) {
+            FieldDescriptor field = AlertResponse.getDescriptor().findFieldByName(path);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown read_mask path " + path);
+            }
+            fields |= 1L << field.getNumber();
+        }
+        return fields == LEGACY.fields ? LEGACY : new AlertView(fields);
+    }
+
+    // Outside a listing, the cursor is the alert's position in the default one
+    AlertResponse toResponse(AlertEntity entity) {
+        return toResponse(entity, AlertListQuery.UNFILTERED);
+    }
+
+    /** The alert as streamed by {@code listing}, whose order and filters its cursor carries. */
+    AlertResponse toResponse(AlertEntity entity, AlertListQuery listing) {
+        AlertResponse.Builder response = AlertResponse.newBuilder();
+        if (has(AlertResponse.ALERT_ID_FIELD_NUMBER)) {
+            response.setAlertId(entity.getId());
+        }
+        if (has(AlertResponse.TYPE_FIELD_NUMBER)) {
+            response.setType(entity.getType());
+        }
+        if (has(AlertResponse.LATITUDE_FIELD_NUMBER)) {
+            response.setLatitude(entity.getLatitude());
+        }
+        if (has(AlertResponse.LONGITUDE_FIELD_NUMBER)) {
+            response.setLongitude(entity.getLongitude());
+        }
+        if (has(AlertResponse.DESCRIPTION_FIELD_NUMBER)) {
+            response.setDescription(entity.getDescription() != null ? entity.getDescription() : "");
+        }
+        if (has(AlertResponse.STATUS_FIELD_NUMBER)) {
+            response.setStatus(entity.getStatus().name());
+        }
+        if (has(AlertResponse.RECEIVED_TIMESTAMP_FIELD_NUMBER)) {
+            response.setReceivedTimestamp(entity.getTimestamp().toString());
+        }
+        if (has(AlertResponse.SENDER_CIN_FIELD_NUMBER)) {
+            response.setSenderCin(entity.getSenderCin() != null ? entity.getSenderCin() : "");
+        }
+        if (has(AlertResponse.CURSOR_FIELD_NUMBER)) {
+            response.setCursor(AlertCursor.of(entity, listing).encode());
+        }
+        if (has(AlertResponse.REPORT_COUNT_FIELD_NUMBER)) {
+            response.setReportCount(entity.getReportCount());
+        }
+        if (has(AlertResponse.TYPE_CODE_FIELD_NUMBER)) {
+            response.setTypeCode(typeCode(entity.getType()));
+        }
+        if (has(AlertResponse.STATUS_CODE_FIELD_NUMBER)) {
+            response.setStatusCode(statusCode(entity.getStatus()));
+        }
+        if (has(AlertResponse.RECEIVED_EPOCH_MILLIS_FIELD_NUMBER)) {
+            response.setReceivedEpochMillis(epochMillis(entity.getTimestamp()));
+        }
+        return response.build();
+    }
+
+    /** Same as {@link #toResponse}, starting from a {@link #LEGACY} response (e.g. a cached one). */
+    AlertResponse project(AlertResponse legacy) {
+        if (this == LEGACY) {
+            return legacy;
+        }
+        AlertResponse.Builder response = legacy.toBuilder();
+        // Cheaper to clear what was not asked for than to copy field by field
+        for (FieldDescriptor field : AlertResponse.getDescriptor().getFields()) {
+            if (!has(field.getNumber())) {
+                response.clearField(field);
+            }
+        }
+        if (has(AlertResponse.TYPE_CODE_FIELD_NUMBER)) {
+            response.setTypeCode(typeCode(legacy.getType()));
+        }
+        if (has(AlertResponse.STATUS_CODE_FIELD_NUMBER)) {
+            response.setStatusCode(statusCode(AlertStatus.valueOf(legacy.getStatus())));
+        }
+        if (has(AlertResponse.RECEIVED_EPOCH_MILLIS_FIELD_NUMBER)) {
+            response.setReceivedEpochMillis(epochMillis(LocalDateTime.parse(legacy.getReceivedTimestamp())));
+        }
+        return response.build();
+    }
+
+    private boolean has(int fieldNumber) {
+        return (fields & (1L << fieldNumber)) != 0;
+    }
+
+    private static long bits(int... fieldNumbers) {
+        long bits = 0;
+        for (int number : fieldNumbers) {
+            bits |= 1L << number;
+        }
+        return bits;
+    }
+
+    private static AlertTypeCode typeCode(String type) {
+        return TYPE_CODES.getOrDefault(type, AlertTypeCode.TYPE_OTHER);
+    }
+
+    private static AlertStatusCode statusCode(AlertStatus status) {
+        return AlertStatusCode.valueOf(status.name());
+    }
+
+    // Timestamps are stored as the server's local time (LocalDateTime.now())
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
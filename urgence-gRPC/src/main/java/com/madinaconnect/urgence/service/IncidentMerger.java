@@ -0,0 +1,106 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.config.DedupProperties;
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertReport;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.model.GeoCell;
+import com.madinaconnect.urgence.repository.AlertReportRepository;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Near-duplicate reports: when a fire is seen by a whole street, the citizens' reports should make
+ * one incident for the dispatchers, not fifty. A report joins an open alert (PENDING or
+ * IN_PROGRESS) of the same type, from another sender, within urgence.dedup.merge-radius-meters and
+ * received less than urgence.dedup.merge-window ago. The alert's report_count goes up and the
+ * report itself (sender, description, position) is kept in alert_reports, numbered like
+ * report_count, instead of a new alert being stored.
+ * <p>
+ * Reports from the same sender are never merged: a retry is recognized by its request_id, and a
+ * second report by the same person is taken as new information. Two reports arriving at the very
+ * same time can still both create an alert; in clustered mode only alerts of the local partition
+ * are considered.
+ * Metrics: urgence.alerts.deduplicated{reason=merged}.
+ */
+@Component
+public class IncidentMerger {
+
+    private static final Set<AlertStatus> OPEN = Set.of(AlertStatus.PENDING, AlertStatus.IN_PROGRESS);
+    // A radius of a few hundred meters covers a handful of cells
+    private static final int MAX_CELLS = 100;
+
+    private final AlertRepository alertRepository;
+    private final AlertReportRepository reportRepository;
+    private final double radiusMeters;
+    private final Duration window;
+    private final Counter merges;
+
+    public IncidentMerger(AlertRepository alertRepository, AlertReportRepository reportRepository,
+                          DedupProperties properties, MeterRegistry registry) {
+        this.alertRepository = alertRepository;
+        this.reportRepository = reportRepository;
+        this.radiusMeters = properties.getMergeRadiusMeters();
+        this.window = properties.getMergeWindow();
+        this.merges = Counter.builder("urgence.alerts.deduplicated")
+                .description("Alert reports not stored as new alerts")
+                .tag("reason", "merged")
+                .register(registry);
+    }
+
+    // The alert as updated and the report stored for it
+    public record Merged(AlertEntity alert, AlertReport report) {
+    }
+
+    /**
+     * Adds the report to the closest matching open alert and returns that alert as updated with
+     * the stored report, or null if there is none and the report must be stored as a new alert.
+     * The count and the report row are written in one transaction.
+     */
+    @Transactional
+    public Merged merge(AlertRequest report) {
+        if (radiusMeters <= 0) {
+            return null;
+        }
+        double lat = report.getLatitude(), lon = report.getLongitude();
+        double dLat = radiusMeters / NearbyAlertSearch.METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / (NearbyAlertSearch.METERS_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(lat))));
+        List<Long> cells = GeoCell.covering(lat - dLat, lon - dLon, lat + dLat, lon + dLon, MAX_CELLS);
+        if (cells == null) {
+            return null;
+        }
+        List<AlertEntity> candidates = alertRepository.findRecentInCells(cells,
+                lat - dLat, lon - dLon, lat + dLat, lon + dLon, OPEN, report.getType(),
+                LocalDateTime.now().minus(window));
+        List<AlertEntity> matches = candidates.stream()
+                .filter(a -> !Objects.equals(a.getSenderCin(), report.getSenderCin()))
+                .filter(a -> NearbyAlertSearch.distanceMeters(lat, lon, a.getLatitude(), a.getLongitude()) <= radiusMeters)
+                .sorted(Comparator.comparingDouble(a -> NearbyAlertSearch.distanceMeters(lat, lon, a.getLatitude(), a.getLongitude())))
+                .toList();
+        // Closest first; one resolved in the meantime is skipped by the conditional update
+        for (AlertEntity match : matches) {
+            if (alertRepository.addReport(match.getId(), OPEN) == 1) {
+                AlertEntity merged = alertRepository.findById(match.getId()).orElse(null);
+                if (merged != null) {
+                    AlertReport stored = reportRepository.save(new AlertReport(merged.getId(),
+                            merged.getReportCount(), report.getSenderCin(), report.getDescription(),
+                            lat, lon, LocalDateTime.now()));
+                    merges.increment();
+                    return new Merged(merged, stored);
+                }
+            }
+        }
+        return null;
+    }
+}
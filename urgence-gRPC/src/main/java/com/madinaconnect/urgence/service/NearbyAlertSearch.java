@@ -0,0 +1,140 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.BoundingBox;
+import com.madinaconnect.urgence.grpc.NearbyAlertsRequest;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.model.GeoCell;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Radius and bounding-box searches over alerts.
+ * The area is turned into the GeoCells it covers, so the DB only reads rows from those cells
+ * (index on geo_cell) instead of scanning the table: one IN list for a small box, one range of
+ * cell numbers per row of the grid for a larger one or a radius.
+ * <p>
+ * Radius results are filtered by exact distance and returned closest first. The rows are read
+ * nearest first, keeping only the limit closest matches, and the search stops at the first row
+ * too far away to hold a closer one.
+ */
+@Service
+public class NearbyAlertSearch {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 5000;
+    // Above this many cells (~20 km x 20 km) a box is read row by row rather than as a huge IN list
+    private static final int MAX_CELLS = 400;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    static final double METERS_PER_DEGREE_LAT = 111_320;
+
+    private final AlertRepository alertRepository;
+
+    public NearbyAlertSearch(AlertRepository alertRepository) {
+        this.alertRepository = alertRepository;
+    }
+
+    public record Match(AlertEntity alert, double distanceMeters) {}
+
+    /** Number of results the request asks for, once defaulted and capped. */
+    public static int limitOf(NearbyAlertsRequest request) {
+        return request.getLimit() <= 0 ? DEFAULT_LIMIT : Math.min(request.getLimit(), MAX_LIMIT);
+    }
+
+    /**
+     * @throws IllegalArgumentException if neither a positive radius nor a box is given, or the status is unknown
+     */
+    public List<Match> search(NearbyAlertsRequest request) {
+        AlertStatus status = request.getStatusFilter().isEmpty() ? null : AlertStatus.valueOf(request.getStatusFilter());
+        String type = request.getTypeFilter().isEmpty() ? null : request.getTypeFilter();
+        int limit = limitOf(request);
+
+        if (request.hasBox()) {
+            BoundingBox box = request.getBox();
+            return findInBox(box.getMinLatitude(), box.getMinLongitude(), box.getMaxLatitude(), box.getMaxLongitude(),
+                    status, type, limit).stream()
+                    .map(a -> new Match(a, 0))
+                    .toList();
+        }
+
+        if (request.getRadiusMeters() <= 0) {
+            throw new IllegalArgumentException("radius_meters must be > 0 when no box is given");
+        }
+        return closest(request.getLatitude(), request.getLongitude(), request.getRadiusMeters(), status, type, limit);
+    }
+
+    private List<AlertEntity> findInBox(double minLat, double minLon, double maxLat, double maxLon,
+                                        AlertStatus status, String type, int limit) {
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new IllegalArgumentException("Empty bounding box");
+        }
+        List<Long> cells = GeoCell.covering(minLat, minLon, maxLat, maxLon, MAX_CELLS);
+        if (cells != null) {
+            return alertRepository.findInCells(cells, minLat, minLon, maxLat, maxLon, status, type, Limit.of(limit));
+        }
+        List<AlertEntity> found = new ArrayList<>();
+        for (GeoCell.Row row : GeoCell.rows(minLat, minLon, maxLat, maxLon)) {
+            found.addAll(alertRepository.findInCellRange(row.firstCell(), row.lastCell(), minLat, minLon, maxLat, maxLon,
+                    status, type, Limit.of(limit - found.size())));
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    private List<Match> closest(double lat, double lon, double radius, AlertStatus status, String type, int limit) {
+        // Box around the circle, on the same sphere as distanceMeters so that it never cuts the circle's edge
+        double angle = radius / EARTH_RADIUS_METERS;
+        double dLat = Math.toDegrees(angle);
+        double dLon = Math.toDegrees(Math.asin(Math.min(1, Math.sin(angle) / Math.max(0.01, Math.cos(Math.toRadians(lat))))));
+        double minLat = lat - dLat, minLon = lon - dLon, maxLat = lat + dLat, maxLon = lon + dLon;
+        List<GeoCell.Row> rows = new ArrayList<>(GeoCell.rows(minLat, minLon, maxLat, maxLon));
+        rows.sort(Comparator.comparingDouble(row -> latitudeGapMeters(lat, row)));
+
+        // The limit closest matches so far, farthest on top
+        PriorityQueue<Match> closest = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Match::distanceMeters).reversed());
+        for (GeoCell.Row row : rows) {
+            if (closest.size() == limit && latitudeGapMeters(lat, row) > closest.peek().distanceMeters()) {
+                break;
+            }
+            for (AlertEntity alert : alertRepository.findInCellRange(row.firstCell(), row.lastCell(),
+                    minLat, minLon, maxLat, maxLon, status, type, Limit.unlimited())) {
+                double distance = distanceMeters(lat, lon, alert.getLatitude(), alert.getLongitude());
+                if (distance <= radius && (closest.size() < limit || distance < closest.peek().distanceMeters())) {
+                    closest.add(new Match(alert, distance));
+                    if (closest.size() > limit) {
+                        closest.poll();
+                    }
+                }
+            }
+        }
+        return closest.stream()
+                .sorted(Comparator.comparingDouble(Match::distanceMeters))
+                .toList();
+    }
+
+    // Lower bound of the distance from the centre to any point of the row: its latitude difference
+    // alone, a meridian arc of R per radian
+    private static double latitudeGapMeters(double lat, GeoCell.Row row) {
+        double gap = lat < row.minLatitude() ? row.minLatitude() - lat
+                : lat > row.maxLatitude() ? lat - row.maxLatitude() : 0;
+        return EARTH_RADIUS_METERS * Math.toRadians(gap);
+    }
+
+    // Haversine great-circle distance
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+}
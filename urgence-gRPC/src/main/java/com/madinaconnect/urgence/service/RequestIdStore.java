@@ -0,0 +1,119 @@
+package com.madinaconnect.urgence.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.madinaconnect.urgence.config.DedupProperties;
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of recent CreateAlert / BatchCreateAlerts items by request_id, so that a client
+ * retrying after a lost reply gets the alert it already created instead of a second one.
+ * <p>
+ * Completed responses are bounded in size and time (urgence.dedup.request-id-window): a retry is
+ * expected within minutes, not days. In memory only, so a restart forgets them. The first request
+ * with an id gets a {@link Claim} before doing any work; a retry arriving meanwhile waits for it
+ * rather than racing it. Claims in flight are kept apart from the bounded responses, so eviction
+ * can never leave such a retry waiting for a future nobody completes.
+ * Metrics: urgence.alerts.deduplicated{reason=request_id}.
+ */
+@Component
+@EnableConfigurationProperties(DedupProperties.class)
+public class RequestIdStore {
+
+    private final Cache<String, AlertResponse> responses;
+    // Claimed, not completed yet: as many as requests in flight
+    private final Map<String, CompletableFuture<AlertResponse>> pending = new ConcurrentHashMap<>();
+    private final Counter replays;
+
+    public RequestIdStore(DedupProperties properties, MeterRegistry registry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxRequestIds())
+                .expireAfterWrite(properties.getRequestIdWindow())
+                .build();
+        this.replays = Counter.builder("urgence.alerts.deduplicated")
+                .description("Alert reports not stored as new alerts")
+                .tag("reason", "request_id")
+                .register(registry);
+    }
+
+    /** Key of the request, or null if it has no request_id. */
+    public static String keyOf(AlertRequest request) {
+        return request.getRequestId().isEmpty() ? null : request.getSenderCin() + "/" + request.getRequestId();
+    }
+
+    /**
+     * Registers the request with this key. If it is the first, the caller must {@link Claim#complete}
+     * or {@link Claim#abandon} the returned claim; otherwise {@link Claim#response} is the response to
+     * the earlier request (possibly still pending).
+     */
+    public Claim claim(String key) {
+        AlertResponse done = responses.getIfPresent(key);
+        if (done != null) {
+            return replay(key, CompletableFuture.completedFuture(done));
+        }
+        CompletableFuture<AlertResponse> mine = new CompletableFuture<>();
+        CompletableFuture<AlertResponse> earlier = pending.putIfAbsent(key, mine);
+        if (earlier != null) {
+            return replay(key, earlier);
+        }
+        // Completed between the two lookups: complete() stores the response before removing its claim
+        done = responses.getIfPresent(key);
+        if (done != null) {
+            pending.remove(key, mine);
+            return replay(key, CompletableFuture.completedFuture(done));
+        }
+        return new Claim(key, mine, false);
+    }
+
+    /** True if a request with this key was already received (completed or still in flight). Claims nothing. */
+    public boolean isKnown(String key) {
+        return pending.containsKey(key) || responses.getIfPresent(key) != null;
+    }
+
+    private Claim replay(String key, CompletableFuture<AlertResponse> response) {
+        replays.increment();
+        return new Claim(key, response, true);
+    }
+
+    public final class Claim {
+        private final String key;
+        private final CompletableFuture<AlertResponse> response;
+        private final boolean replay;
+
+        private Claim(String key, CompletableFuture<AlertResponse> response, boolean replay) {
+            this.key = key;
+            this.response = response;
+            this.replay = replay;
+        }
+
+        /** True if an earlier request has the key: nothing to do but answer with {@link #response}. */
+        public boolean isReplay() {
+            return replay;
+        }
+
+        public CompletableFuture<AlertResponse> response() {
+            return response;
+        }
+
+        public void complete(AlertResponse result) {
+            responses.put(key, result);
+            pending.remove(key, response);
+            response.complete(result);
+        }
+
+        /** The request failed: forgotten, so that the next retry is processed again. */
+        public void abandon(Throwable cause) {
+            pending.remove(key, response);
+            response.completeExceptionally(cause);
+        }
+    }
+}
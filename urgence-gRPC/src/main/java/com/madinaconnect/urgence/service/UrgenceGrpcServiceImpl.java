@@ -1,91 +1,389 @@
 package com.madinaconnect.urgence.service;
 
+import com.madinaconnect.urgence.cluster.AlertIds;
 import com.madinaconnect.urgence.grpc.*;
 import com.madinaconnect.urgence.model.AlertEntity;
 import com.madinaconnect.urgence.model.AlertStatus;
 import com.madinaconnect.urgence.repository.AlertRepository;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+import com.madinaconnect.urgence.wal.AlertJournal;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @GrpcService
 public class UrgenceGrpcServiceImpl extends UrgenceServiceGrpc.UrgenceServiceImplBase {
 
+    private static final Logger log = LoggerFactory.getLogger(UrgenceGrpcServiceImpl.class);
+
     @Autowired
     private AlertRepository alertRepository;
 
+    // How many rows ListAlerts reads from the DB at a time
+    @Value("${urgence.list.chunk-size:500}")
+    private int listChunkSize;
+
+    @Autowired
+    private AlertBatchWriter batchWriter;
+
+    @Autowired
+    private NearbyAlertSearch nearbySearch;
+
+    @Autowired
+    private AlertEventBus eventBus;
+
+    @Autowired
+    private AlertCache alertCache;
+
+    @Autowired
+    private AlertIds alertIds;
+
+    // No-op unless urgence.wal.enabled: writes are acknowledged only once logged
+    @Autowired
+    private AlertJournal journal;
+
+    @Autowired
+    private RequestIdStore requestIds;
+
+    @Autowired
+    private IncidentMerger incidentMerger;
+
+    // How many uploaded alerts BatchCreateAlerts buffers before writing them in one transaction
+    @Value("${urgence.batch.flush-size:100}")
+    private int batchFlushSize;
+
+    // Max per-item errors detailed in a BatchSummary (the count is always exact)
+    private static final int MAX_REPORTED_BATCH_ERRORS = 100;
+
     // --- 1. UNARY (Existing) ---
     @Override
+    // A retry with the same request_id gets the first reply; a report of an incident already open
+    // nearby is added to it (merged = true) instead of creating another alert (see IncidentMerger)
     public void createAlert(AlertRequest request, StreamObserver<AlertResponse> responseObserver) {
-        AlertEntity entity = saveAlertToDb(request);
-        responseObserver.onNext(mapToResponse(entity));
+        String key = RequestIdStore.keyOf(request);
+        RequestIdStore.Claim claim = key != null ? requestIds.claim(key) : null;
+        if (claim != null) {
+            if (claim.isReplay()) {
+                claim.response().whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        responseObserver.onError(Status.ABORTED
+                                .withDescription("Request " + request.getRequestId() + " failed, retry").asRuntimeException());
+                    } else {
+                        responseObserver.onNext(response);
+                        responseObserver.onCompleted();
+                    }
+                });
+                return;
+            }
+        }
+        AlertResponse response;
+        try {
+            response = createOrMerge(request);
+        } catch (RuntimeException e) {
+            if (claim != null) {
+                claim.abandon(e);
+            }
+            throw e;
+        }
+        if (claim != null) {
+            claim.complete(response);
+        }
+        responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
 
+    private AlertResponse createOrMerge(AlertRequest request) {
+        IncidentMerger.Merged merged = incidentMerger.merge(request);
+        if (merged != null) {
+            journal.reportAdded(merged.alert(), merged.report());
+            alertCache.invalidate(merged.alert().getId());
+            AlertResponse response = mapToResponse(merged.alert());
+            eventBus.publish(AlertEventBus.REPORTED, response);
+            return response.toBuilder().setMerged(true).build();
+        }
+        AlertEntity entity = saveAlertToDb(request);
+        journal.created(List.of(entity));
+        AlertResponse response = mapToResponse(entity);
+        alertCache.putCreated(response);
+        eventBus.publish(AlertEventBus.CREATED, response);
+        return response;
+    }
+
     @Override
     public void getAlert(GetAlertRequest request, StreamObserver<AlertResponse> responseObserver) {
-        alertRepository.findById(request.getAlertId()).ifPresentOrElse(
-                entity -> {
-                    responseObserver.onNext(mapToResponse(entity));
-                    responseObserver.onCompleted();
-                },
-                () -> responseObserver.onError(Status.NOT_FOUND.withDescription("Alert not found").asRuntimeException())
-        );
+        AlertView view;
+        try {
+            view = AlertView.of(request.getReadMask());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        // The cache holds full responses, whatever each caller's read_mask
+        AlertResponse cached = alertCache.get(request.getAlertId(), this::loadAlert);
+        if (cached == null) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription("Alert not found").asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(view.project(cached));
+        responseObserver.onCompleted();
     }
 
+    // Single conditional UPDATE: INVALID_ARGUMENT for an unknown status, FAILED_PRECONDITION for a
+    // transition the lifecycle does not allow, ABORTED if the alert is no longer in expected_status
     @Override
     public void updateAlertStatus(UpdateStatusRequest request, StreamObserver<AlertResponse> responseObserver) {
-        alertRepository.findById(request.getAlertId()).ifPresentOrElse(
-                entity -> {
-                    entity.setStatus(AlertStatus.valueOf(request.getNewStatus()));
-                    alertRepository.save(entity);
-                    responseObserver.onNext(mapToResponse(entity));
-                    responseObserver.onCompleted();
-                },
-                () -> responseObserver.onError(Status.NOT_FOUND.asRuntimeException())
-        );
+        AlertStatus next;
+        AlertStatus expected;
+        try {
+            next = parseStatus(request.getNewStatus(), "new_status");
+            expected = parseStatus(request.getExpectedStatus(), "expected_status");
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        if (next == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("new_status is required").asRuntimeException());
+            return;
+        }
+        if (expected != null && !expected.canTransitionTo(next)) {
+            responseObserver.onError(Status.FAILED_PRECONDITION
+                    .withDescription("Cannot change status from " + expected + " to " + next).asRuntimeException());
+            return;
+        }
+
+        String id = request.getAlertId();
+        Set<AlertStatus> from = expected != null ? Set.of(expected) : AlertStatus.allowedBefore(next);
+        if (from.isEmpty() || alertRepository.transitionStatus(id, from, next) == 0) {
+            // Nothing changed: only now read the alert, to tell the caller why
+            rejectStatusUpdate(id, expected, next, responseObserver);
+            return;
+        }
+        AlertEntity updated = alertRepository.findById(id).orElse(null);
+        if (updated == null) {
+            // Deleted right after the update
+            alertCache.invalidate(id);
+            responseObserver.onError(Status.NOT_FOUND.withDescription("Alert not found").asRuntimeException());
+            return;
+        }
+        journal.statusChanged(updated);
+        // Committed and logged: drop the cached copy before anyone is told about the new status
+        alertCache.invalidate(id);
+        AlertResponse response = mapToResponse(updated);
+        eventBus.publish(AlertEventBus.STATUS_CHANGED, response);
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private void rejectStatusUpdate(String id, AlertStatus expected, AlertStatus next,
+                                    StreamObserver<AlertResponse> responseObserver) {
+        AlertEntity current = alertRepository.findById(id).orElse(null);
+        if (current == null) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription("Alert not found").asRuntimeException());
+        } else if (expected != null) {
+            // Even if the alert already is in the new status: someone else moved it there, and this
+            // caller must see the change it did not know about
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Alert is " + current.getStatus() + ", not " + expected).asRuntimeException());
+        } else if (current.getStatus() == next) {
+            // Unconditional update already there (typically a retried request): same answer as the first time
+            responseObserver.onNext(mapToResponse(current));
+            responseObserver.onCompleted();
+        } else if (current.getStatus().canTransitionTo(next)) {
+            // Another update got in between the UPDATE and this read
+            responseObserver.onError(Status.ABORTED
+                    .withDescription("Alert was changed concurrently, now " + current.getStatus()).asRuntimeException());
+        } else {
+            responseObserver.onError(Status.FAILED_PRECONDITION
+                    .withDescription("Cannot change status from " + current.getStatus() + " to " + next).asRuntimeException());
+        }
     }
 
     // --- 2. SERVER STREAMING (Existing) ---
+    // Streams in keyset-paginated chunks, paced by the client (see AlertPageStreamer)
     @Override
     public void listAlerts(ListAlertsRequest request, StreamObserver<AlertResponse> responseObserver) {
-        var alerts = request.getTypeFilter().isEmpty() ? alertRepository.findAll() : alertRepository.findByType(request.getTypeFilter());
-        alerts.forEach(entity -> responseObserver.onNext(mapToResponse(entity)));
+        if (request.getPageSize() < 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("page_size must be >= 0").asRuntimeException());
+            return;
+        }
+        AlertListQuery listing;
+        AlertView view;
+        try {
+            view = AlertView.of(request.getReadMask());
+            listing = new AlertListQuery(
+                    request.getTypeFilter().isEmpty() ? null : request.getTypeFilter(),
+                    parseStatus(request.getStatusFilter(), "status_filter"),
+                    parseTime(request.getSince(), "since"),
+                    parseTime(request.getUntil(), "until"),
+                    request.getNewestFirst());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        AlertCursor start;
+        try {
+            start = AlertCursor.decode(request.getResumeCursor(), listing);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Invalid resume_cursor: " + e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        var serverObserver = (ServerCallStreamObserver<AlertResponse>) responseObserver;
+        AlertPageStreamer streamer = new AlertPageStreamer(serverObserver, alertRepository,
+                alert -> view.toResponse(alert, listing), listing, start, request.getPageSize(), listChunkSize);
+        serverObserver.setOnCancelHandler(streamer::cancel);
+        // gRPC invokes this as soon as the stream is ready, and again every time the client catches up
+        serverObserver.setOnReadyHandler(streamer);
+    }
+
+    @Override
+    public void findNearbyAlerts(NearbyAlertsRequest request, StreamObserver<AlertResponse> responseObserver) {
+        List<NearbyAlertSearch.Match> matches;
+        try {
+            matches = nearbySearch.search(request);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        // Results are bounded by the request limit, so they are simply sent in order
+        for (NearbyAlertSearch.Match match : matches) {
+            responseObserver.onNext(mapToResponse(match.alert()).toBuilder()
+                    .setDistanceMeters(match.distanceMeters())
+                    .build());
+        }
         responseObserver.onCompleted();
     }
 
+    // Pushes alert changes as they happen, instead of dashboards polling ListAlerts (see AlertEventBus)
+    @Override
+    public void subscribeAlerts(SubscribeAlertsRequest request, StreamObserver<AlertEvent> responseObserver) {
+        if (request.getResumeAfterSequence() < 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("resume_after_sequence must be >= 0").asRuntimeException());
+            return;
+        }
+        var serverObserver = (ServerCallStreamObserver<AlertEvent>) responseObserver;
+        AlertSubscription subscription = eventBus.newSubscription(request, serverObserver);
+        serverObserver.setOnCancelHandler(() -> eventBus.unregister(subscription));
+        // Events buffered while the client was not ready are written once it catches up
+        serverObserver.setOnReadyHandler(subscription::scheduleDrain);
+        eventBus.register(subscription, request.getResumeAfterSequence());
+    }
+
     // --- 3. CLIENT STREAMING (New!) ---
+    // Alerts are buffered and written flushSize at a time (one transaction + JDBC batch per chunk)
     @Override
     public StreamObserver<AlertRequest> batchCreateAlerts(StreamObserver<BatchSummary> responseObserver) {
         return new StreamObserver<AlertRequest>() {
-            int count = 0;
+            final List<AlertEntity> buffer = new ArrayList<>(batchFlushSize);
+            final List<Integer> bufferIndexes = new ArrayList<>(batchFlushSize); // stream position of each buffered alert
+            final List<RequestIdStore.Claim> bufferClaims = new ArrayList<>(batchFlushSize); // claimed request id of each buffered alert, or null
+            final List<BatchItemError> errors = new ArrayList<>();
+            int received = 0;
+            int saved = 0;
+            int failed = 0;
+            int replayed = 0;
 
             @Override
             public void onNext(AlertRequest request) {
-                // Keep receiving alerts one by one and saving them
-                saveAlertToDb(request);
-                count++;
-                System.out.println("Batch received alert #" + count);
+                int index = received++;
+                String invalid = validate(request);
+                if (invalid != null) {
+                    recordFailure(index, invalid);
+                    return;
+                }
+                String key = RequestIdStore.keyOf(request);
+                RequestIdStore.Claim claim = key != null ? requestIds.claim(key) : null;
+                if (claim != null && claim.isReplay()) {
+                    // Already stored (or being stored) by an earlier upload of the same item
+                    replayed++;
+                    return;
+                }
+                buffer.add(toEntity(request));
+                bufferIndexes.add(index);
+                bufferClaims.add(claim);
+                if (buffer.size() >= batchFlushSize) {
+                    flush();
+                }
             }
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("Error in batch upload: " + t.getMessage());
+                // The client is gone, so nobody can read a summary: keep what was already received
+                flush();
+                log.warn("Batch upload aborted received={} saved={} failed={} cause={}",
+                        received, saved, failed, Status.fromThrowable(t).getCode());
             }
 
             @Override
             public void onCompleted() {
+                flush();
                 // Client is done sending. We send ONE summary response.
                 BatchSummary summary = BatchSummary.newBuilder()
-                        .setAlertCount(count)
-                        .setStatusMessage("Succès! " + count + " alertes enregistrées.")
+                        .setAlertCount(saved)
+                        .setFailedCount(failed)
+                        .setReplayedCount(replayed)
+                        .addAllErrors(errors)
+                        .setStatusMessage(failed == 0
+                                ? "Succès! " + saved + " alertes enregistrées."
+                                : saved + " alertes enregistrées, " + failed + " rejetées.")
                         .build();
                 responseObserver.onNext(summary);
                 responseObserver.onCompleted();
             }
+
+            private void flush() {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                List<AlertEntity> stored = batchWriter.saveChunk(buffer, (position, reason) -> {
+                    recordFailure(bufferIndexes.get(position), reason);
+                    RequestIdStore.Claim claim = bufferClaims.get(position);
+                    if (claim != null) {
+                        claim.abandon(new IllegalStateException(reason));
+                    }
+                });
+                journal.created(stored);
+                saved += stored.size();
+                Map<String, RequestIdStore.Claim> claimsById = new HashMap<>();
+                for (int i = 0; i < buffer.size(); i++) {
+                    if (bufferClaims.get(i) != null) {
+                        claimsById.put(buffer.get(i).getId(), bufferClaims.get(i));
+                    }
+                }
+                for (AlertEntity entity : stored) {
+                    AlertResponse response = mapToResponse(entity);
+                    alertCache.putCreated(response);
+                    eventBus.publish(AlertEventBus.CREATED, response);
+                    RequestIdStore.Claim claim = claimsById.get(entity.getId());
+                    if (claim != null) {
+                        claim.complete(response);
+                    }
+                }
+                buffer.clear();
+                bufferIndexes.clear();
+                bufferClaims.clear();
+            }
+
+            private void recordFailure(int index, String reason) {
+                failed++;
+                if (errors.size() < MAX_REPORTED_BATCH_ERRORS) {
+                    errors.add(BatchItemError.newBuilder().setIndex(index).setReason(reason).build());
+                }
+            }
         };
     }
 
@@ -95,7 +393,8 @@ public class UrgenceGrpcServiceImpl extends UrgenceServiceGrpc.UrgenceServiceImp
         return new StreamObserver<ChatMessage>() {
             @Override
             public void onNext(ChatMessage incomingMsg) {
-                System.out.println("Chat from CIN " + incomingMsg.getSenderCin() + ": " + incomingMsg.getMessage());
+                // Message text stays out of the logs (personal data); debug level only
+                log.debug("Chat message senderCin={} length={}", incomingMsg.getSenderCin(), incomingMsg.getMessage().length());
 
                 // Simulate Operator Typing Back
                 String replyText = "Protection Civile: Reçu " + incomingMsg.getMessage() + ". Calmez-vous.";
@@ -116,7 +415,7 @@ public class UrgenceGrpcServiceImpl extends UrgenceServiceGrpc.UrgenceServiceImp
 
             @Override
             public void onError(Throwable t) {
-                System.err.println("Chat disconnected");
+                log.debug("Chat stream closed by client cause={}", Status.fromThrowable(t).getCode());
             }
 
             @Override
@@ -127,8 +426,41 @@ public class UrgenceGrpcServiceImpl extends UrgenceServiceGrpc.UrgenceServiceImp
     }
 
     // --- Helpers ---
-    private AlertEntity saveAlertToDb(AlertRequest request) {
+    // Package-private (with mapToResponse) so that ServiceHotPathBenchmark can measure them directly
+    AlertEntity saveAlertToDb(AlertRequest request) {
+        return alertRepository.save(toEntity(request));
+    }
+
+    private AlertResponse loadAlert(String id) {
+        return alertRepository.findById(id).map(this::mapToResponse).orElse(null);
+    }
+
+    private AlertStatus parseStatus(String value, String field) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return AlertStatus.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + field + " " + value);
+        }
+    }
+
+    // Empty means "no bound"; anything else must be an ISO-8601 local date-time like the stored timestamps
+    private LocalDateTime parseTime(String value, String field) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must be an ISO-8601 date-time (e.g. 2025-01-31T08:00)");
+        }
+    }
+
+    private AlertEntity toEntity(AlertRequest request) {
         AlertEntity entity = new AlertEntity();
+        entity.setId(alertIds.next());
         entity.setType(request.getType());
         entity.setLatitude(request.getLatitude());
         entity.setLongitude(request.getLongitude());
@@ -136,19 +468,29 @@ public class UrgenceGrpcServiceImpl extends UrgenceServiceGrpc.UrgenceServiceImp
         entity.setSenderCin(request.getSenderCin());
         entity.setStatus(AlertStatus.PENDING);
         entity.setTimestamp(LocalDateTime.now());
-        return alertRepository.save(entity);
-    }
-
-    private AlertResponse mapToResponse(AlertEntity entity) {
-        return AlertResponse.newBuilder()
-                .setAlertId(entity.getId())
-                .setType(entity.getType())
-                .setLatitude(entity.getLatitude())
-                .setLongitude(entity.getLongitude())
-                .setDescription(entity.getDescription() != null ? entity.getDescription() : "")
-                .setStatus(entity.getStatus().name())
-                .setSenderCin(entity.getSenderCin() != null ? entity.getSenderCin() : "")
-                .setReceivedTimestamp(entity.getTimestamp().toString())
-                .build();
+        return entity;
+    }
+
+    // Returns why the alert can't be stored, or null if it is fine (mirrors the column constraints of AlertEntity)
+    private String validate(AlertRequest request) {
+        if (request.getType().isBlank()) {
+            return "type is required";
+        }
+        if (request.getLatitude() < -90 || request.getLatitude() > 90
+                || request.getLongitude() < -180 || request.getLongitude() > 180) {
+            return "coordinates out of range";
+        }
+        if (request.getSenderCin().length() > 8) {
+            return "sender_cin is longer than 8 characters";
+        }
+        if (request.getDescription().length() > 500) {
+            return "description is longer than 500 characters";
+        }
+        return null;
+    }
+
+    // Full response with the original string fields (cache, events, unary replies)
+    AlertResponse mapToResponse(AlertEntity entity) {
+        return AlertView.LEGACY.toResponse(entity);
     }
 }
\ No newline at end of file
@@ -0,0 +1,400 @@
+package com.madinaconnect.urgence.wal;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.madinaconnect.urgence.config.WalProperties;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertReport;
+import com.madinaconnect.urgence.model.GeoCell;
+import com.madinaconnect.urgence.wal.proto.AlertCreated;
+import com.madinaconnect.urgence.wal.proto.JournalRecord;
+import com.madinaconnect.urgence.wal.proto.ReportAdded;
+import com.madinaconnect.urgence.wal.proto.StatusChanged;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durable persistence mode (urgence.wal.enabled). The in-memory H2 database stays the query
+ * engine; every committed alert creation, status change and merged report (with the report row
+ * of alert_reports) is also appended to a {@link WriteAheadLog}, and the client is only answered once the record is on disk. At startup
+ * the log is replayed into the empty database, so a restarted server comes back with every
+ * acknowledged alert.
+ * <p>
+ * Compaction keeps the log (and the replay) proportional to the alerts table rather than to its
+ * history: once compactAfter has been logged since the last snapshot (or as much as that snapshot
+ * took), a background thread writes a new snapshot of every alert, then deletes the segments
+ * before it. Size of the log on disk: urgence.wal.size.
+ */
+@Component
+@DependsOn("entityManagerFactory") // Replays into the alerts table, which Hibernate creates
+@EnableConfigurationProperties(WalProperties.class)
+public class AlertJournal implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertJournal.class);
+
+    private static final int INSERT_BATCH = 1000;
+    private static final String SNAPSHOT_SQL = "SELECT id, type, sender_cin, latitude, longitude, description, status, "
+            + "timestamp, version, report_count FROM alerts";
+    private static final String REPORTS_SNAPSHOT_SQL = "SELECT alert_id, report_number, sender_cin, description, "
+            + "latitude, longitude, timestamp FROM alert_reports";
+
+    private final WriteAheadLog wal; // null when disabled
+    private final JdbcTemplate jdbc;
+    private final long compactAfterSegments;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "wal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile long snapshotSegments; // taken by the last snapshot, 0 before the first one
+
+    public AlertJournal(WalProperties properties, JdbcTemplate jdbc, MeterRegistry registry) throws IOException {
+        this.jdbc = jdbc;
+        int segmentSize = Math.toIntExact(properties.getSegmentSize().toBytes());
+        this.compactAfterSegments = Math.max(1, properties.getCompactAfter().toBytes() / segmentSize);
+        if (!properties.isEnabled()) {
+            wal = null;
+            return;
+        }
+        long start = System.nanoTime();
+        Replay replay = new Replay();
+        wal = WriteAheadLog.open(Path.of(properties.getDirectory()), segmentSize, replay::accept);
+        int restored = replay.insertInto(jdbc);
+        int reports = replay.insertReportsInto(jdbc);
+        log.info("Write-ahead log replayed directory={} records={} alerts={} reports={} segments={} durationMs={}",
+                properties.getDirectory(), replay.records, restored, reports, wal.segmentCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        Gauge.builder("urgence.wal.size", wal, WriteAheadLog::size)
+                .baseUnit("bytes")
+                .description("Disk space taken by the write-ahead log segments")
+                .register(registry);
+        compactIfDue();
+    }
+
+    public boolean isEnabled() {
+        return wal != null;
+    }
+
+    /** Logs newly stored alerts; returns once they are durable. */
+    public void created(Collection<AlertEntity> alerts) {
+        if (wal == null || alerts.isEmpty()) {
+            return;
+        }
+        try {
+            long ticket = 0;
+            for (AlertEntity alert : alerts) {
+                ticket = wal.write(JournalRecord.newBuilder().setCreated(toRecord(alert)).build().toByteArray());
+            }
+            // One wait covers the whole batch
+            wal.sync(ticket);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log " + alerts.size() + " alerts", e);
+        }
+        compactIfDue();
+    }
+
+    /** Logs the status of an alert as it is after an update; returns once it is durable. */
+    public void statusChanged(AlertEntity alert) {
+        if (wal == null) {
+            return;
+        }
+        StatusChanged change = StatusChanged.newBuilder()
+                .setId(alert.getId())
+                .setStatus(alert.getStatus().name())
+                .setVersion(alert.getVersion())
+                .build();
+        try {
+            wal.append(JournalRecord.newBuilder().setStatusChanged(change).build().toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log status of alert " + alert.getId(), e);
+        }
+        compactIfDue();
+    }
+
+    /**
+     * Logs a near-duplicate report merged into an alert, with the alert's report count after it;
+     * returns once it is durable.
+     */
+    public void reportAdded(AlertEntity alert, AlertReport report) {
+        if (wal == null) {
+            return;
+        }
+        ReportAdded added = toRecord(report).toBuilder()
+                .setReportCount(alert.getReportCount())
+                .setVersion(alert.getVersion())
+                .build();
+        try {
+            wal.append(JournalRecord.newBuilder().setReportAdded(added).build().toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log report count of alert " + alert.getId(), e);
+        }
+        compactIfDue();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (wal != null) {
+            compactor.shutdown();
+            try {
+                // A snapshot halfway is harmless (the older segments are still there), but let it finish
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            wal.close();
+        }
+    }
+
+    // Due when the log written since the last snapshot is at least compactAfter, and at least as
+    // large as that snapshot: the log stays within about twice the snapshot plus compactAfter.
+    private void compactIfDue() {
+        long snapshot = snapshotSegments;
+        if (wal.segmentCount() - snapshot >= Math.max(compactAfterSegments, snapshot)
+                && compacting.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    // The snapshot starts in a new segment, after every record logged so far. Each alert is then
+    // read from the database, which is updated before the log: the row is at least as new as any
+    // record of the alert in the older segments, so those can go. Changes logged meanwhile have
+    // higher versions than the row read before them, and replay keeps the highest version.
+    private void compact() {
+        long start = System.nanoTime();
+        try {
+            long first = wal.roll();
+            long[] ticket = {0};
+            int[] alerts = {0};
+            try {
+                jdbc.query(SNAPSHOT_SQL, rs -> {
+                    AlertCreated snapshot = AlertCreated.newBuilder()
+                            .setId(rs.getString("id"))
+                            .setType(rs.getString("type"))
+                            .setSenderCin(Objects.requireNonNullElse(rs.getString("sender_cin"), ""))
+                            .setLatitude(rs.getDouble("latitude"))
+                            .setLongitude(rs.getDouble("longitude"))
+                            .setDescription(Objects.requireNonNullElse(rs.getString("description"), ""))
+                            .setStatus(rs.getString("status"))
+                            .setTimestampMicros(toMicros(rs.getObject("timestamp", LocalDateTime.class)))
+                            .setVersion(rs.getLong("version"))
+                            .setReportCount(rs.getInt("report_count"))
+                            .build();
+                    try {
+                        ticket[0] = wal.write(JournalRecord.newBuilder().setCreated(snapshot).build().toByteArray());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    alerts[0]++;
+                });
+                // Read after the alerts: a report merged in between is also logged after the roll
+                jdbc.query(REPORTS_SNAPSHOT_SQL, rs -> {
+                    AlertReport report = new AlertReport(rs.getString("alert_id"), rs.getInt("report_number"),
+                            rs.getString("sender_cin"), rs.getString("description"), rs.getDouble("latitude"),
+                            rs.getDouble("longitude"), rs.getObject("timestamp", LocalDateTime.class));
+                    try {
+                        ticket[0] = wal.write(JournalRecord.newBuilder().setReportAdded(toRecord(report)).build().toByteArray());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            wal.sync(ticket[0]);
+            int deleted = wal.deleteBefore(first);
+            snapshotSegments = wal.segmentCount();
+            log.info("Write-ahead log compacted alerts={} deletedSegments={} segments={} durationMs={}",
+                    alerts[0], deleted, snapshotSegments, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // The log keeps growing until the next attempt, after the next write
+            log.error("Write-ahead log compaction failed", e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private static AlertCreated toRecord(AlertEntity alert) {
+        return AlertCreated.newBuilder()
+                .setId(alert.getId())
+                .setType(alert.getType())
+                .setSenderCin(alert.getSenderCin() != null ? alert.getSenderCin() : "")
+                .setLatitude(alert.getLatitude())
+                .setLongitude(alert.getLongitude())
+                .setDescription(alert.getDescription() != null ? alert.getDescription() : "")
+                .setStatus(alert.getStatus().name())
+                .setTimestampMicros(toMicros(alert.getTimestamp()))
+                .setVersion(alert.getVersion() != null ? alert.getVersion() : 0)
+                .setReportCount(alert.getReportCount())
+                .build();
+    }
+
+    // Version 0: the count of a snapshot comes with its alert
+    private static ReportAdded toRecord(AlertReport report) {
+        return ReportAdded.newBuilder()
+                .setId(report.getAlertId())
+                .setReportCount(report.getReportNumber())
+                .setSenderCin(report.getSenderCin() != null ? report.getSenderCin() : "")
+                .setDescription(report.getDescription() != null ? report.getDescription() : "")
+                .setLatitude(report.getLatitude())
+                .setLongitude(report.getLongitude())
+                .setTimestampMicros(toMicros(report.getTimestamp()))
+                .build();
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Latest state of every alert in the log. Concurrent updates may be logged out of order,
+    // so each alert keeps the status (and report count) with the highest version rather than the last one read.
+    private static final class Replay {
+
+        private final Map<String, ReplayedAlert> alerts = new LinkedHashMap<>();
+        private long records;
+
+        void accept(ByteBuffer payload) {
+            JournalRecord record;
+            try {
+                record = JournalRecord.parseFrom(payload);
+            } catch (InvalidProtocolBufferException e) {
+                // The checksum matched, so this is not a torn write: refuse to start on a partial state
+                throw new IllegalStateException("Unreadable write-ahead log record", e);
+            }
+            records++;
+            switch (record.getEntryCase()) {
+                case CREATED -> {
+                    AlertCreated created = record.getCreated();
+                    ReplayedAlert alert = alerts.computeIfAbsent(created.getId(), id -> new ReplayedAlert());
+                    alert.created = created;
+                    alert.apply(created.getStatus(), created.getVersion());
+                    // Snapshots carry the count; creations logged before report_count existed have none
+                    alert.count(Math.max(1, created.getReportCount()), created.getVersion());
+                }
+                case STATUS_CHANGED -> {
+                    StatusChanged change = record.getStatusChanged();
+                    alerts.computeIfAbsent(change.getId(), id -> new ReplayedAlert())
+                            .apply(change.getStatus(), change.getVersion());
+                }
+                case REPORT_ADDED -> {
+                    ReportAdded report = record.getReportAdded();
+                    ReplayedAlert alert = alerts.computeIfAbsent(report.getId(), id -> new ReplayedAlert());
+                    alert.count(report.getReportCount(), report.getVersion());
+                    if (report.getTimestampMicros() != 0) {
+                        // Logged again by a snapshot running at the time: same report_number
+                        alert.reports.put(report.getReportCount(), report);
+                    }
+                }
+                case ENTRY_NOT_SET -> {
+                    // Written by a newer version of the service
+                }
+            }
+        }
+
+        int insertInto(JdbcTemplate jdbc) {
+            String sql = "INSERT INTO alerts (id, type, sender_cin, latitude, longitude, geo_cell, description, status, timestamp, version, report_count) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            int inserted = 0;
+            for (ReplayedAlert alert : alerts.values()) {
+                AlertCreated c = alert.created;
+                if (c == null) {
+                    continue; // Status change whose creation was lost with a damaged segment
+                }
+                rows.add(new Object[]{c.getId(), c.getType(), c.getSenderCin(), c.getLatitude(), c.getLongitude(),
+                        GeoCell.of(c.getLatitude(), c.getLongitude()), c.getDescription(), alert.status,
+                        fromMicros(c.getTimestampMicros()), Math.max(alert.version, alert.countVersion), alert.reportCount});
+                if (rows.size() == INSERT_BATCH) {
+                    jdbc.batchUpdate(sql, rows);
+                    inserted += rows.size();
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(sql, rows);
+                inserted += rows.size();
+            }
+            return inserted;
+        }
+
+        int insertReportsInto(JdbcTemplate jdbc) {
+            String sql = "INSERT INTO alert_reports (alert_id, report_number, sender_cin, description, latitude, longitude, timestamp) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            int inserted = 0;
+            for (ReplayedAlert alert : alerts.values()) {
+                if (alert.created == null) {
+                    continue;
+                }
+                for (ReportAdded r : alert.reports.values()) {
+                    rows.add(new Object[]{r.getId(), r.getReportCount(), r.getSenderCin(), r.getDescription(),
+                            r.getLatitude(), r.getLongitude(), fromMicros(r.getTimestampMicros())});
+                    if (rows.size() == INSERT_BATCH) {
+                        jdbc.batchUpdate(sql, rows);
+                        inserted += rows.size();
+                        rows.clear();
+                    }
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(sql, rows);
+                inserted += rows.size();
+            }
+            return inserted;
+        }
+    }
+
+    private static final class ReplayedAlert {
+        AlertCreated created;
+        String status;
+        long version = -1;
+        // Merged reports bump the same version as status changes, but are logged separately
+        int reportCount = 1;
+        long countVersion = -1;
+        // By report_number
+        final Map<Integer, ReportAdded> reports = new TreeMap<>();
+
+        void apply(String status, long version) {
+            if (version > this.version) {
+                this.status = status;
+                this.version = version;
+            }
+        }
+
+        void count(int reportCount, long version) {
+            if (version > countVersion) {
+                this.reportCount = reportCount;
+                this.countVersion = version;
+            }
+        }
+    }
+}
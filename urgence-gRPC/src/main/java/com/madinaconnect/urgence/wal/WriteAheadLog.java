@@ -0,0 +1,393 @@
+package com.madinaconnect.urgence.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records, stored in memory-mapped segment files
+ * ({@code 0000000000000000.wal}, {@code 0000000000000001.wal}, ...).
+ * <p>
+ * A record is {@code [int length][int CRC32C of the payload][payload]}. Segments are created
+ * zero-filled, so a zero length marks the end of what was written. A bad length or checksum is a
+ * record torn by a crash: it ends the segment, and in the last segment it is wiped before appending.
+ * <p>
+ * Group commit: {@link #write} copies the record into the mapping under a short lock, and
+ * {@link #sync} waits for a single flusher thread that forces (msync) everything written since
+ * its previous pass. Records written while a force is running are covered by the next one, so
+ * under load one disk flush acknowledges many records.
+ * <p>
+ * Once written, a record survives a crash of the JVM (the page cache has it); it survives a crash
+ * of the machine once {@link #sync} has returned.
+ * <p>
+ * The log only grows by itself. Its owner truncates it: once the records of the segments before
+ * {@link #roll} are covered by newer ones, {@link #deleteBefore} drops those segments.
+ */
+public final class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();  // signalled to the flusher
+    private final Condition flushed = lock.newCondition();  // signalled to writers waiting in sync
+
+    // Guarded by lock
+    private long firstSegmentIndex;
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int flushedPosition; // bytes of the current segment already forced
+    private long written;        // records copied into the mappings
+    private long durable;        // records forced to disk
+    private boolean closed;
+    private IOException failure;
+
+    private WriteAheadLog(Path directory, int segmentSize, FileChannel lockChannel,
+                          long firstSegmentIndex, long segmentIndex, MappedByteBuffer segment) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lockChannel = lockChannel;
+        this.firstSegmentIndex = firstSegmentIndex;
+        this.segmentIndex = segmentIndex;
+        this.segment = segment;
+        this.flushedPosition = segment.position();
+        this.flusher = Thread.ofPlatform().name("wal-flusher").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Opens (or creates) the log in {@code directory}, passing every valid record to {@code replay}
+     * in the order it was written, then gets ready to append after the last one.
+     */
+    public static WriteAheadLog open(Path directory, int segmentSize, Consumer<ByteBuffer> replay) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve("lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = lockChannel.tryLock();
+            if (fileLock == null) {
+                throw new IOException("Write-ahead log " + directory + " is used by another process");
+            }
+            List<Long> indexes = segmentIndexes(directory);
+            if (indexes.isEmpty()) {
+                return new WriteAheadLog(directory, segmentSize, lockChannel, 0, 0, createSegment(directory, 0, segmentSize));
+            }
+            for (int i = 0; i < indexes.size() - 1; i++) {
+                Path file = segmentFile(directory, indexes.get(i));
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    replaySegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file, replay);
+                }
+            }
+            long lastIndex = indexes.getLast();
+            Path file = segmentFile(directory, lastIndex);
+            MappedByteBuffer last;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                last = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            int end = replaySegment(last, file, replay);
+            if (wipeAfter(last, end)) {
+                last.force();
+            }
+            last.position(end);
+            return new WriteAheadLog(directory, segmentSize, lockChannel, indexes.getFirst(), lastIndex, last);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /** Copies the record into the log and returns its ticket for {@link #sync}. Not durable yet. */
+    public long write(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            ensureUsable();
+            if (segment.remaining() < size) {
+                rotate();
+            }
+            int position = segment.position();
+            segment.putInt(position + 4, (int) crc.getValue());
+            segment.put(position + HEADER_BYTES, payload);
+            segment.putInt(position, payload.length);
+            segment.position(position + size);
+            pending.signal();
+            return ++written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Waits until the record with this ticket, and every record before it, is on disk. */
+    public void sync(long ticket) throws IOException {
+        lock.lock();
+        try {
+            while (durable < ticket) {
+                ensureUsable();
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the write-ahead log");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(byte[] payload) throws IOException {
+        sync(write(payload));
+    }
+
+    /**
+     * Starts a new segment, even if the current one has room left, and returns its index: every
+     * record written before this call is in an older segment, every record written after it is not.
+     */
+    public long roll() throws IOException {
+        lock.lock();
+        try {
+            ensureUsable();
+            rotate();
+            return segmentIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments older than {@code index}, oldest first, so that a crash halfway leaves
+     * a log that still replays from its first segment. Never deletes the current segment.
+     *
+     * @return the number of segments deleted
+     */
+    public int deleteBefore(long index) throws IOException {
+        long first;
+        long last;
+        lock.lock();
+        try {
+            ensureUsable();
+            first = firstSegmentIndex;
+            last = Math.min(index, segmentIndex);
+        } finally {
+            lock.unlock();
+        }
+        int deleted = 0;
+        try {
+            for (long i = first; i < last; i++) {
+                Files.deleteIfExists(segmentFile(directory, i));
+                deleted++;
+                lock.lock();
+                try {
+                    firstSegmentIndex = i + 1;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            if (deleted > 0) {
+                try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                    dir.force(true);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /** Number of segment files, the current one included. */
+    public long segmentCount() {
+        lock.lock();
+        try {
+            return segmentIndex - firstSegmentIndex + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Bytes of the segment files: each one has the full segment size from the start. */
+    public long size() {
+        return segmentCount() * segmentSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            // The flusher forces what is left before it stops
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private void ensureUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Write-ahead log is closed");
+        }
+    }
+
+    // Called with the lock held. Forces the full segment first: records of the new segment must
+    // not be acknowledged while older ones could still be lost.
+    private void rotate() throws IOException {
+        segment.force();
+        durable = written;
+        flushed.signalAll();
+        MappedByteBuffer next = createSegment(directory, segmentIndex + 1, segmentSize);
+        segmentIndex++;
+        segment = next;
+        flushedPosition = 0;
+        log.info("Write-ahead log segment started index={}", segmentIndex);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long upTo;
+            lock.lock();
+            try {
+                while (durable == written && !closed) {
+                    pending.awaitUninterruptibly();
+                }
+                if (durable == written) {
+                    return; // closed, nothing left to force
+                }
+                target = segment;
+                from = flushedPosition;
+                to = segment.position();
+                upTo = written;
+                flushedPosition = to;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                if (to > from) {
+                    target.force(from, to - from);
+                }
+            } catch (UncheckedIOException e) {
+                error = e.getCause();
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    // Nothing written from now on could be made durable: fail every writer
+                    failure = error;
+                    log.error("Write-ahead log flush failed directory={}", directory, error);
+                } else {
+                    durable = Math.max(durable, upTo);
+                }
+                flushed.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Returns where the valid records of the segment end
+    private static int replaySegment(ByteBuffer buffer, Path file, Consumer<ByteBuffer> replay) {
+        int position = 0;
+        while (buffer.limit() - position >= HEADER_BYTES) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+            if (length < 0 || length > buffer.limit() - position - HEADER_BYTES) {
+                log.warn("Write-ahead log ends with a torn record file={} position={}", file, position);
+                return position;
+            }
+            ByteBuffer payload = buffer.slice(position + HEADER_BYTES, length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Write-ahead log ends with a torn record file={} position={}", file, position);
+                return position;
+            }
+            replay.accept(payload.asReadOnlyBuffer());
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    // Zeroes whatever follows the last valid record (a torn write), so that it can never be read back
+    private static boolean wipeAfter(ByteBuffer buffer, int end) {
+        boolean dirty = false;
+        for (int i = end; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                dirty = true;
+            }
+        }
+        return dirty;
+    }
+
+    private static MappedByteBuffer createSegment(Path directory, long index, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the (sparse, zero-filled) file; the mapping outlives the channel
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            channel.force(true);
+            try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                dir.force(true); // make the new file name itself durable
+            }
+            return buffer;
+        }
+    }
+
+    private static List<Long> segmentIndexes(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .forEach(name -> indexes.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    private static Path segmentFile(Path directory, long index) {
+        return directory.resolve(String.format("%016d%s", index, SUFFIX));
+    }
+}
@@ -0,0 +1,61 @@
+package com.madinaconnect.urgence.admission;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CreateAlert is limited per sender, but a retry of a request_id already received only gets the
+ * first reply back and costs no token.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=rate-limit-test",
+        "urgence.gateway.in-process-name=rate-limit-test",
+        "urgence.admission.sender-alerts-per-minute=1",
+        "urgence.admission.sender-burst=1"})
+class SenderRateLimitTest {
+
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+
+    @BeforeEach
+    void connect() {
+        channel = InProcessChannelBuilder.forName("rate-limit-test").build();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void disconnect() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void retriesOfAKnownRequestIdAreNotRateLimited() {
+        AlertRequest request = AlertRequest.newBuilder()
+                .setType("FIRE").setLatitude(35.70).setLongitude(9.70)
+                .setDescription("Signalement").setSenderCin("66666666").setRequestId("limited-1")
+                .build();
+
+        AlertResponse first = stub.createAlert(request);
+        for (int retry = 0; retry < 3; retry++) {
+            assertEquals(first, stub.createAlert(request));
+        }
+        StatusRuntimeException refused = assertThrows(StatusRuntimeException.class,
+                () -> stub.createAlert(request.toBuilder().setRequestId("limited-2").build()));
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, refused.getStatus().getCode());
+    }
+}
@@ -0,0 +1,251 @@
+package com.madinaconnect.urgence.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.madinaconnect.urgence.UrgenceApplication;
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import io.grpc.ManagedChannel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two nodes in one JVM, each owning a partition. Alerts created through either gateway are
+ * stored by one node only, status updates reach the owner, listings and alert events merge both partitions.
+ */
+class ClusterRoutingTest {
+
+    private static final int ALERTS = 10;
+    private static final int DEMO_ALERTS = 5; // seeded on partition 0 only
+    // Alerts of alertEventsMergeEveryPartitionAndResumeEach, left out of the listing counts
+    private static final String EVENTS_TYPE = "EVENTS_TEST";
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final ObjectMapper json = new ObjectMapper();
+
+    @BeforeAll
+    static void startCluster() throws IOException {
+        int[] grpcPorts = {freePort(), freePort()};
+        String addresses = "localhost:" + grpcPorts[0] + ",localhost:" + grpcPorts[1];
+        for (int partition = 0; partition < grpcPorts.length; partition++) {
+            nodes.add(new SpringApplicationBuilder(UrgenceApplication.class).run(
+                    "--spring.main.banner-mode=off",
+                    "--server.port=0",
+                    "--grpc.server.port=" + grpcPorts[partition],
+                    "--spring.datasource.url=jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                    "--urgence.admission.sender-alerts-per-minute=0",
+                    "--urgence.cluster.nodes=" + addresses,
+                    "--urgence.cluster.partition=" + partition));
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void alertsAreOwnedByOneNodeAndListedAcrossAll() throws Exception {
+        // The gateway channel of node 1 routes CreateAlert round robin over both nodes (node 1 started
+        // last, so it connected to both right away; node 0 reaches node 1 after a reconnect backoff)
+        var stub = UrgenceServiceGrpc.newBlockingStub(nodes.get(1).getBean(ManagedChannel.class));
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < ALERTS; i++) {
+            created.add(stub.createAlert(AlertRequest.newBuilder()
+                    .setType("FIRE").setLatitude(36.8).setLongitude(10.18)
+                    .setDescription("Alerte " + i).setSenderCin("12345678")
+                    .build()).getAlertId());
+        }
+        for (String id : created) {
+            int owner = AlertIds.partitionOf(id);
+            assertTrue(id.startsWith("p" + owner + "-"), id);
+            assertTrue(repository(owner).existsById(id), id + " stored by its owner");
+            assertFalse(repository(1 - owner).existsById(id), id + " not stored by the other node");
+        }
+        assertEquals(2, created.stream().map(AlertIds::partitionOf).distinct().count());
+
+        // Node 1's gateway updates an alert owned by node 0
+        String ownedBy0 = created.stream().filter(id -> AlertIds.partitionOf(id) == 0).findFirst().orElseThrow();
+        HttpResponse<String> update = http.send(HttpRequest.newBuilder(gateway(1, "/api/alerts/" + ownedBy0 + "/status"))
+                .PUT(HttpRequest.BodyPublishers.ofString("IN_PROGRESS")).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, update.statusCode(), update.body());
+        assertEquals("IN_PROGRESS", repository(0).findById(ownedBy0).orElseThrow().getStatus().name());
+
+        // Pages of 4, merged from both partitions, resumed with the cursor of the last alert
+        List<String> listed = new ArrayList<>();
+        List<String> timestamps = new ArrayList<>();
+        String cursor = "";
+        while (true) {
+            JsonNode page = json.readTree(http.send(HttpRequest.newBuilder(gateway(1, "/api/alerts?pageSize=4&cursor=" + cursor))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString()).body());
+            if (page.isEmpty()) {
+                break;
+            }
+            for (JsonNode alert : page) {
+                cursor = alert.get("cursor").asText();
+                // Created by alertEventsMergeEveryPartitionAndResumeEach if it ran first
+                if (alert.get("type").asText().equals(EVENTS_TYPE)) {
+                    continue;
+                }
+                listed.add(alert.get("alertId").asText());
+                timestamps.add(alert.get("receivedTimestamp").asText());
+            }
+        }
+        assertEquals(ALERTS + DEMO_ALERTS, listed.size());
+        Set<String> unique = new HashSet<>(listed);
+        assertEquals(listed.size(), unique.size());
+        assertTrue(unique.containsAll(created));
+        assertEquals(timestamps.stream().sorted(Comparator.comparing(LocalDateTime::parse)).toList(), timestamps);
+    }
+
+    @Test
+    void alertEventsMergeEveryPartitionAndResumeEach() throws Exception {
+        var stub = UrgenceServiceGrpc.newBlockingStub(nodes.get(1).getBean(ManagedChannel.class));
+        Map<String, String> subscribed;
+        Map<String, String> last = null;
+        Set<String> received = new HashSet<>();
+        try (SseStream events = SseStream.open(gateway(1, "/api/alerts/events?type=" + EVENTS_TYPE), "")) {
+            subscribed = events.next();
+            assertEquals("SUBSCRIBED", subscribed.get("event"));
+            Set<String> created = createOnBothPartitions(stub);
+            while (!received.containsAll(created)) {
+                last = events.next();
+                assertEquals("CREATED", last.get("event"), last.toString());
+                received.add(json.readTree(last.get("data")).get("alert").get("alertId").asText());
+            }
+        }
+        // One sequence per partition, both past where the subscription started
+        String[] start = subscribed.get("id").split("\\.");
+        String[] reached = last.get("id").split("\\.");
+        assertEquals(2, reached.length);
+        for (int partition = 0; partition < 2; partition++) {
+            assertTrue(Long.parseLong(reached[partition]) > Long.parseLong(start[partition]), last.get("id"));
+        }
+
+        // Missed while disconnected, on both partitions: replayed from each one's own position
+        Set<String> missed = createOnBothPartitions(stub);
+        try (SseStream events = SseStream.open(gateway(1, "/api/alerts/events?type=" + EVENTS_TYPE), last.get("id"))) {
+            Set<String> replayed = new HashSet<>();
+            while (replayed.size() < missed.size()) {
+                Map<String, String> event = events.next();
+                assertEquals("CREATED", event.get("event"), event.toString());
+                replayed.add(json.readTree(event.get("data")).get("alert").get("alertId").asText());
+            }
+            assertEquals(missed, replayed);
+        }
+    }
+
+    // Creates alerts of type EVENTS_TYPE until both partitions have at least one
+    private static Set<String> createOnBothPartitions(UrgenceServiceGrpc.UrgenceServiceBlockingStub stub) {
+        Set<String> created = new HashSet<>();
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; partitions.size() < 2; i++) {
+            String id = stub.createAlert(AlertRequest.newBuilder()
+                    .setType(EVENTS_TYPE).setLatitude(36.7 - i * 0.01).setLongitude(10.18)
+                    .setDescription("Evenement " + i).setSenderCin("87654321")
+                    .build()).getAlertId();
+            created.add(id);
+            partitions.add(AlertIds.partitionOf(id));
+        }
+        return created;
+    }
+
+    private static AlertRepository repository(int partition) {
+        return nodes.get(partition).getBean(AlertRepository.class);
+    }
+
+    private static URI gateway(int partition, String path) {
+        return URI.create("http://localhost:"
+                + nodes.get(partition).getEnvironment().getProperty("local.server.port") + path);
+    }
+
+    // A text/event-stream response, read event by event on a background thread
+    private static final class SseStream implements AutoCloseable {
+        private final InputStream body;
+        private final BlockingQueue<Map<String, String>> events = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        private SseStream(InputStream body) {
+            this.body = body;
+            this.thread = Thread.ofVirtual().start(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                    Map<String, String> event = new HashMap<>();
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        if (line.isEmpty()) {
+                            if (!event.isEmpty()) {
+                                events.add(event);
+                            }
+                            event = new HashMap<>();
+                        } else if (line.indexOf(':') > 0) {
+                            event.put(line.substring(0, line.indexOf(':')), line.substring(line.indexOf(':') + 1));
+                        }
+                    }
+                } catch (IOException e) {
+                    // Closed by the test
+                }
+            });
+        }
+
+        static SseStream open(URI uri, String lastEventId) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET();
+            if (!lastEventId.isEmpty()) {
+                request.header("Last-Event-ID", lastEventId);
+            }
+            HttpResponse<InputStream> response = http.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(200, response.statusCode());
+            return new SseStream(response.body());
+        }
+
+        Map<String, String> next() throws InterruptedException {
+            Map<String, String> event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event, "No event within 10 s");
+            return event;
+        }
+
+        // Drops the connection, as a browser leaving the page; the gateway notices on its next write
+        @Override
+        public void close() throws IOException, InterruptedException {
+            body.close();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
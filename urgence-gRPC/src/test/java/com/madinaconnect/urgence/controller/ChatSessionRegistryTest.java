@@ -0,0 +1,45 @@
+package com.madinaconnect.urgence.controller;
+
+import com.madinaconnect.urgence.config.GatewayProperties;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChatSessionRegistryTest {
+
+    private static final String CIN = "12345678";
+
+    // Never connected: opening chat streams and subscribing to them does not call the service
+    private final ManagedChannel channel = ManagedChannelBuilder.forTarget("localhost:1").usePlaintext().build();
+    private final ChatSessionRegistry registry = new ChatSessionRegistry(channel, new GatewayProperties());
+
+    @AfterEach
+    void close() {
+        registry.shutdown();
+        channel.shutdownNow();
+    }
+
+    @Test
+    void conversationIsFollowedByItsStreamIdNotByTheCin() {
+        String streamId = registry.openStream(CIN, null);
+
+        assertNull(registry.subscribe(CIN));
+        assertNull(registry.subscribe("not-a-stream-id"));
+        assertNotNull(registry.subscribe(streamId));
+    }
+
+    @Test
+    void streamIdIsKeptByItsCitizenOnly() {
+        String streamId = registry.openStream(CIN, null);
+
+        assertEquals(streamId, registry.openStream(CIN, streamId));
+        assertNotEquals(streamId, registry.openStream(CIN, null));
+        assertNotEquals(streamId, registry.openStream("87654321", streamId));
+    }
+}
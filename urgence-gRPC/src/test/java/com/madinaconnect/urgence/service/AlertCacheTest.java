@@ -0,0 +1,81 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertCacheTest {
+
+    private final AlertCache cache = new AlertCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    private final AtomicReference<String> dbStatus = new AtomicReference<>("PENDING");
+
+    @Test
+    void loadStartedBeforeCommitIsNotKeptAfterInvalidation() throws Exception {
+        CountDownLatch readFromDb = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Reader: reads PENDING from the "database", then stalls before the value reaches the cache
+        CompletableFuture<AlertResponse> slowRead = CompletableFuture.supplyAsync(() -> cache.get("a1", id -> {
+            AlertResponse loaded = alert(id, dbStatus.get());
+            readFromDb.countDown();
+            awaitQuietly(release);
+            return loaded;
+        }));
+        assertTrue(readFromDb.await(5, TimeUnit.SECONDS));
+
+        // Writer: commits RESOLVED, then invalidates; the invalidation has to wait for the load
+        dbStatus.set("RESOLVED");
+        Thread writer = new Thread(() -> cache.invalidate("a1"));
+        writer.start();
+        awaitBlocked(writer);
+        release.countDown();
+        writer.join(5_000);
+
+        // The update is acknowledged from here on
+        assertEquals("PENDING", slowRead.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals("RESOLVED", cache.get("a1", id -> alert(id, dbStatus.get())).getStatus());
+    }
+
+    @Test
+    void missingAlertIsNotCached() {
+        assertEquals(null, cache.get("a2", id -> null));
+        assertEquals("PENDING", cache.get("a2", id -> alert(id, "PENDING")).getStatus());
+    }
+
+    @Test
+    void createdAlertIsServedFromCache() {
+        cache.putCreated(alert("a3", "PENDING"));
+        assertEquals("PENDING", cache.get("a3", id -> {
+            throw new AssertionError("should not hit the database");
+        }).getStatus());
+    }
+
+    private static AlertResponse alert(String id, String status) {
+        return AlertResponse.newBuilder().setAlertId(id).setType("FIRE").setStatus(status).build();
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "invalidate() did not wait for the load in progress");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
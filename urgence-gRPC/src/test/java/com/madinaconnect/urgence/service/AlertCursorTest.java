@@ -0,0 +1,66 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.repository.AlertListQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AlertCursorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final AlertListQuery PENDING_FIRES = new AlertListQuery("FIRE", AlertStatus.PENDING, DAY, null, true);
+
+    private final AlertEntity alert = new AlertEntity("p1-0b7e", "FIRE", "12345678", 36.8, 10.18,
+            "Feu", AlertStatus.PENDING, DAY.plusHours(3).plusNanos(1_000));
+
+    @Test
+    void resumesTheListingItWasIssuedFor() {
+        String encoded = AlertCursor.of(alert, PENDING_FIRES).encode();
+
+        AlertCursor cursor = AlertCursor.decode(encoded,
+                new AlertListQuery("FIRE", AlertStatus.PENDING, DAY, null, true));
+
+        assertEquals(alert.getTimestamp(), cursor.timestamp());
+        assertEquals(alert.getId(), cursor.id());
+        assertNull(AlertCursor.decode("", PENDING_FIRES));
+    }
+
+    @Test
+    void otherOrderIsRefused() {
+        String encoded = AlertCursor.of(alert, PENDING_FIRES).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded,
+                new AlertListQuery("FIRE", AlertStatus.PENDING, DAY, null, false)));
+    }
+
+    @Test
+    void otherFiltersAreRefused() {
+        String encoded = AlertCursor.of(alert, PENDING_FIRES).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded,
+                new AlertListQuery("FLOOD", AlertStatus.PENDING, DAY, null, true)));
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded,
+                new AlertListQuery("FIRE", AlertStatus.IN_PROGRESS, DAY, null, true)));
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded,
+                new AlertListQuery("FIRE", AlertStatus.PENDING, DAY.plusDays(1), null, true)));
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded,
+                new AlertListQuery("FIRE", AlertStatus.PENDING, DAY, DAY.plusDays(1), true)));
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(encoded, AlertListQuery.UNFILTERED));
+    }
+
+    @Test
+    void malformedCursorIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode("not base64!", PENDING_FIRES));
+        // A cursor as encoded before it carried the listing
+        String old = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((alert.getTimestamp() + "|" + alert.getId()).getBytes());
+        assertThrows(IllegalArgumentException.class, () -> AlertCursor.decode(old, AlertListQuery.UNFILTERED));
+    }
+}
@@ -0,0 +1,98 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.GetAlertRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import com.madinaconnect.urgence.model.AlertReport;
+import com.madinaconnect.urgence.repository.AlertReportRepository;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A retried CreateAlert (same request_id) returns the alert of the first attempt, and reports of
+ * the same incident by other citizens are counted on the open alert, and kept in alert_reports,
+ * instead of creating new ones.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=dedup-test",
+        "urgence.gateway.in-process-name=dedup-test",
+        "urgence.admission.sender-alerts-per-minute=0",
+        "urgence.dedup.merge-radius-meters=150"})
+class AlertDeduplicationTest {
+
+    @Autowired
+    private AlertReportRepository reportRepository;
+
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+
+    @BeforeEach
+    void connect() {
+        channel = InProcessChannelBuilder.forName("dedup-test").build();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void disconnect() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void retryWithSameRequestIdReturnsTheFirstAlert() {
+        AlertRequest request = report("FIRE", 35.50, 9.50, "11111111").toBuilder().setRequestId("retry-1").build();
+
+        AlertResponse first = stub.createAlert(request);
+        AlertResponse retry = stub.createAlert(request);
+        AlertResponse otherId = stub.createAlert(request.toBuilder().setRequestId("retry-2").build());
+
+        assertEquals(first, retry);
+        assertNotEquals(first.getAlertId(), otherId.getAlertId());
+    }
+
+    @Test
+    void nearbyReportsOfOtherCitizensAreMergedIntoTheOpenAlert() {
+        AlertResponse first = stub.createAlert(report("FLOOD", 35.60, 9.60, "22222222"));
+        // About 50 m away
+        AlertResponse second = stub.createAlert(report("FLOOD", 35.6004, 9.6003, "33333333").toBuilder()
+                .setDescription("Water up to the doors").build());
+        AlertResponse otherType = stub.createAlert(report("FIRE", 35.6004, 9.6003, "44444444"));
+        // About 1 km away
+        AlertResponse farAway = stub.createAlert(report("FLOOD", 35.61, 9.60, "55555555"));
+
+        assertFalse(first.getMerged());
+        assertTrue(second.getMerged());
+        assertEquals(first.getAlertId(), second.getAlertId());
+        assertEquals(2, second.getReportCount());
+        assertEquals(2, stub.getAlert(GetAlertRequest.newBuilder().setAlertId(first.getAlertId()).build()).getReportCount());
+        List<AlertReport> reports = reportRepository.findByAlertIdOrderByReportNumber(first.getAlertId());
+        assertEquals(1, reports.size());
+        assertEquals(2, reports.getFirst().getReportNumber());
+        assertEquals("33333333", reports.getFirst().getSenderCin());
+        assertEquals("Water up to the doors", reports.getFirst().getDescription());
+        assertEquals(35.6004, reports.getFirst().getLatitude());
+        assertNotEquals(first.getAlertId(), otherType.getAlertId());
+        assertNotEquals(first.getAlertId(), farAway.getAlertId());
+    }
+
+    private static AlertRequest report(String type, double lat, double lon, String senderCin) {
+        return AlertRequest.newBuilder()
+                .setType(type).setLatitude(lat).setLongitude(lon)
+                .setDescription("Signalement").setSenderCin(senderCin)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.GetAlertRequest;
+import com.madinaconnect.urgence.grpc.UpdateStatusRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GetAlert goes through AlertCache. Once UpdateAlertStatus has answered, no GetAlert may
+ * return the previous status: alerts move PENDING -> IN_PROGRESS -> RESOLVED while readers poll them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=coherence-test",
+        "urgence.gateway.in-process-name=coherence-test",
+        // All test alerts come from one sender
+        "urgence.admission.sender-alerts-per-minute=0"})
+class AlertStatusCoherenceTest {
+
+    private static final List<String> PROGRESSION = List.of("PENDING", "IN_PROGRESS", "RESOLVED");
+    private static final int ALERTS = 200;
+    private static final int READERS = 4;
+
+    // The alert being updated and the last status acknowledged for it (index in PROGRESSION)
+    private record Target(String alertId, int acknowledged) {
+    }
+
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+
+    @BeforeEach
+    void connect() {
+        channel = InProcessChannelBuilder.forName("coherence-test").build();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void disconnect() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void readersNeverSeeAStatusOlderThanTheLastAcknowledgedUpdate() throws Exception {
+        AtomicReference<Target> target = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger reads = new AtomicInteger();
+        List<String> staleReads = new ArrayList<>();
+
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                running.add(readers.submit(() -> {
+                    while (!done.get()) {
+                        Target expected = target.get();
+                        if (expected == null) {
+                            continue;
+                        }
+                        AlertResponse read = stub.getAlert(GetAlertRequest.newBuilder()
+                                .setAlertId(expected.alertId()).build());
+                        reads.incrementAndGet();
+                        if (PROGRESSION.indexOf(read.getStatus()) < expected.acknowledged()) {
+                            synchronized (staleReads) {
+                                staleReads.add(expected.alertId() + ": read " + read.getStatus() + " after "
+                                        + PROGRESSION.get(expected.acknowledged()) + " was acknowledged");
+                            }
+                        }
+                    }
+                }));
+            }
+
+            for (int i = 0; i < ALERTS; i++) {
+                String alertId = stub.createAlert(AlertRequest.newBuilder()
+                        .setType("FIRE").setLatitude(36.8).setLongitude(10.18).setSenderCin("12345678")
+                        .build()).getAlertId();
+                target.set(new Target(alertId, 0));
+                for (int step = 1; step < PROGRESSION.size(); step++) {
+                    stub.updateAlertStatus(UpdateStatusRequest.newBuilder()
+                            .setAlertId(alertId).setNewStatus(PROGRESSION.get(step)).build());
+                    target.set(new Target(alertId, step));
+                }
+            }
+            done.set(true);
+            for (Future<?> reader : running) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            done.set(true);
+            readers.shutdownNow();
+        }
+
+        assertTrue(reads.get() > ALERTS, "readers did not run concurrently with the updates");
+        assertEquals(List.of(), staleReads);
+    }
+}
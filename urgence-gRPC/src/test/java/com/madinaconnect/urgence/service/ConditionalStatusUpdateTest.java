@@ -0,0 +1,117 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.AlertRequest;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import com.madinaconnect.urgence.grpc.UpdateStatusRequest;
+import com.madinaconnect.urgence.grpc.UrgenceServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two dispatchers who both saw an alert PENDING move it to IN_PROGRESS with expected_status:
+ * exactly one of them succeeds, the other learns with ABORTED that it lost the race, even though
+ * the alert did end up in the status it asked for.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=conditional-update-test",
+        "urgence.gateway.in-process-name=conditional-update-test",
+        "urgence.admission.sender-alerts-per-minute=0"})
+class ConditionalStatusUpdateTest {
+
+    private static final int ALERTS = 50;
+
+    private ManagedChannel channel;
+    private UrgenceServiceGrpc.UrgenceServiceBlockingStub stub;
+
+    @BeforeEach
+    void connect() {
+        channel = InProcessChannelBuilder.forName("conditional-update-test").build();
+        stub = UrgenceServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void disconnect() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void secondConditionalUpdateToTheSameStatusIsAborted() {
+        String alertId = createAlert();
+
+        assertEquals("IN_PROGRESS", stub.updateAlertStatus(startFrom(alertId, "PENDING")).getStatus());
+        StatusRuntimeException lost = assertThrows(StatusRuntimeException.class,
+                () -> stub.updateAlertStatus(startFrom(alertId, "PENDING")));
+
+        assertEquals(Status.Code.ABORTED, lost.getStatus().getCode());
+    }
+
+    @Test
+    void unconditionalUpdateToTheCurrentStatusIsIdempotent() {
+        String alertId = createAlert();
+        UpdateStatusRequest retried = UpdateStatusRequest.newBuilder()
+                .setAlertId(alertId).setNewStatus("IN_PROGRESS").build();
+
+        assertEquals("IN_PROGRESS", stub.updateAlertStatus(retried).getStatus());
+        assertEquals("IN_PROGRESS", stub.updateAlertStatus(retried).getStatus());
+    }
+
+    @Test
+    void concurrentConditionalUpdatesHaveExactlyOneWinner() throws Exception {
+        ExecutorService dispatchers = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < ALERTS; i++) {
+                String alertId = createAlert();
+                CyclicBarrier start = new CyclicBarrier(2);
+                Callable<Status.Code> dispatcher = () -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    try {
+                        stub.updateAlertStatus(startFrom(alertId, "PENDING"));
+                        return Status.Code.OK;
+                    } catch (StatusRuntimeException e) {
+                        return e.getStatus().getCode();
+                    }
+                };
+                List<Future<Status.Code>> replies = List.of(dispatchers.submit(dispatcher), dispatchers.submit(dispatcher));
+                List<Status.Code> codes = new ArrayList<>();
+                for (Future<Status.Code> reply : replies) {
+                    codes.add(reply.get(10, TimeUnit.SECONDS));
+                }
+                codes.sort(null);
+                assertEquals(List.of(Status.Code.OK, Status.Code.ABORTED), codes, alertId);
+            }
+        } finally {
+            dispatchers.shutdownNow();
+        }
+    }
+
+    private String createAlert() {
+        AlertResponse created = stub.createAlert(AlertRequest.newBuilder()
+                .setType("FIRE").setLatitude(36.8).setLongitude(10.18).setSenderCin("12345678")
+                .build());
+        return created.getAlertId();
+    }
+
+    private static UpdateStatusRequest startFrom(String alertId, String expected) {
+        return UpdateStatusRequest.newBuilder()
+                .setAlertId(alertId).setNewStatus("IN_PROGRESS").setExpectedStatus(expected).build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.grpc.BoundingBox;
+import com.madinaconnect.urgence.grpc.NearbyAlertsRequest;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertStatus;
+import com.madinaconnect.urgence.repository.AlertRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FindNearbyAlerts against a brute-force search over the same alerts, for areas read as one IN
+ * list of cells and for areas too large for it, read row by row of the grid. The test alerts have
+ * their own types, so that alerts left by other tests in the shared database do not match.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "grpc.server.port=-1",
+        "grpc.server.in-process-name=nearby-test",
+        "urgence.gateway.in-process-name=nearby-test"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NearbyAlertSearchTest {
+
+    private static final double LAT = 36.8065, LON = 10.1815; // Tunis centre
+    private static final String TYPE = "NEARBY_TEST", OTHER_TYPE = "NEARBY_TEST_OTHER";
+
+    @Autowired
+    private NearbyAlertSearch search;
+
+    @Autowired
+    private AlertRepository repository;
+
+    private final List<AlertEntity> alerts = new ArrayList<>();
+
+    @BeforeAll
+    void insertAlerts() {
+        SplittableRandom random = new SplittableRandom(7);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3_000; i++) {
+            // Within about 50 km of the centre
+            alerts.add(new AlertEntity("nearby-" + i, i % 4 == 0 ? OTHER_TYPE : TYPE, "09123456",
+                    LAT + random.nextDouble(-0.45, 0.45), LON + random.nextDouble(-0.55, 0.55),
+                    "Nearby test #" + i, i % 3 == 0 ? AlertStatus.RESOLVED : AlertStatus.PENDING, now));
+        }
+        repository.saveAll(alerts);
+    }
+
+    @AfterAll
+    void deleteAlerts() {
+        repository.deleteAllByIdInBatch(alerts.stream().map(AlertEntity::getId).toList());
+    }
+
+    @Test
+    void smallRadiusReturnsTheClosestMatchesInOrder() {
+        assertClosest(2_000, "", 500);
+        assertClosest(8_000, "PENDING", 20);
+    }
+
+    @Test
+    void largeRadiusReturnsTheClosestMatchesInOrder() {
+        assertClosest(40_000, "", 50);
+        assertClosest(40_000, "PENDING", 5_000);
+    }
+
+    @Test
+    void largeBoxStopsAtTheLimit() {
+        BoundingBox box = BoundingBox.newBuilder()
+                .setMinLatitude(LAT - 0.4).setMinLongitude(LON - 0.5)
+                .setMaxLatitude(LAT + 0.4).setMaxLongitude(LON + 0.5)
+                .build();
+        List<NearbyAlertSearch.Match> matches = search.search(NearbyAlertsRequest.newBuilder()
+                .setBox(box).setTypeFilter(TYPE).setLimit(100).build());
+
+        assertEquals(100, matches.size());
+        for (NearbyAlertSearch.Match match : matches) {
+            AlertEntity alert = match.alert();
+            assertEquals(TYPE, alert.getType());
+            assertTrue(alert.getLatitude() >= box.getMinLatitude() && alert.getLatitude() <= box.getMaxLatitude());
+            assertTrue(alert.getLongitude() >= box.getMinLongitude() && alert.getLongitude() <= box.getMaxLongitude());
+        }
+    }
+
+    private void assertClosest(double radius, String status, int limit) {
+        List<String> expected = alerts.stream()
+                .filter(a -> a.getType().equals(TYPE))
+                .filter(a -> status.isEmpty() || a.getStatus().name().equals(status))
+                .filter(a -> distance(a) <= radius)
+                .sorted(Comparator.comparingDouble(this::distance))
+                .limit(limit)
+                .map(AlertEntity::getId)
+                .toList();
+
+        List<String> actual = search.search(NearbyAlertsRequest.newBuilder()
+                        .setLatitude(LAT).setLongitude(LON).setRadiusMeters(radius)
+                        .setTypeFilter(TYPE).setStatusFilter(status).setLimit(limit).build()).stream()
+                .map(match -> match.alert().getId())
+                .toList();
+
+        assertTrue(!expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    private double distance(AlertEntity alert) {
+        return NearbyAlertSearch.distanceMeters(LAT, LON, alert.getLatitude(), alert.getLongitude());
+    }
+}
@@ -0,0 +1,60 @@
+package com.madinaconnect.urgence.service;
+
+import com.madinaconnect.urgence.config.DedupProperties;
+import com.madinaconnect.urgence.grpc.AlertResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestIdStoreTest {
+
+    private static final int MAX_REQUEST_IDS = 2;
+
+    private final RequestIdStore store = new RequestIdStore(properties(), new SimpleMeterRegistry());
+
+    // Far more completed ids than the store keeps go by while the first request is still running
+    @Test
+    void retryWaitingForARequestInFlightIsAnsweredWhateverWasEvicted() throws Exception {
+        RequestIdStore.Claim first = store.claim("11111111/slow");
+        RequestIdStore.Claim retry = store.claim("11111111/slow");
+        for (int i = 0; i < 100 * MAX_REQUEST_IDS; i++) {
+            store.claim("22222222/" + i).complete(response("other-" + i));
+        }
+
+        assertFalse(first.isReplay());
+        assertTrue(retry.isReplay());
+        assertFalse(retry.response().isDone());
+        first.complete(response("slow"));
+        assertEquals("slow", retry.response().get(5, TimeUnit.SECONDS).getAlertId());
+        assertEquals("slow", store.claim("11111111/slow").response().get(5, TimeUnit.SECONDS).getAlertId());
+    }
+
+    @Test
+    void abandonedRequestIsProcessedAgainOnTheNextRetry() {
+        RequestIdStore.Claim first = store.claim("33333333/failing");
+        CompletableFuture<AlertResponse> waiting = store.claim("33333333/failing").response();
+
+        first.abandon(new IllegalStateException("database down"));
+
+        assertTrue(waiting.isCompletedExceptionally());
+        assertFalse(store.isKnown("33333333/failing"));
+        assertFalse(store.claim("33333333/failing").isReplay());
+        assertTrue(store.isKnown("33333333/failing"));
+    }
+
+    private static DedupProperties properties() {
+        DedupProperties properties = new DedupProperties();
+        properties.setMaxRequestIds(MAX_REQUEST_IDS);
+        return properties;
+    }
+
+    private static AlertResponse response(String id) {
+        return AlertResponse.newBuilder().setAlertId(id).setType("FIRE").setStatus("PENDING").build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.madinaconnect.urgence.wal;
+
+import com.madinaconnect.urgence.config.WalProperties;
+import com.madinaconnect.urgence.model.AlertEntity;
+import com.madinaconnect.urgence.model.AlertReport;
+import com.madinaconnect.urgence.model.AlertStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertJournalTest {
+
+    private static final int ALERTS = 40;
+    private static final int ROUNDS = 10;
+    private static final AlertStatus[] STATUSES = {AlertStatus.IN_PROGRESS, AlertStatus.PENDING};
+
+    @TempDir
+    Path directory;
+
+    // Each round logs a status change of every alert: without compaction the log would need
+    // about 15 segments of 1 KB, the alerts themselves about 4
+    @Test
+    void compactionKeepsTheLatestStateInFewerSegments() throws IOException {
+        WalProperties properties = properties();
+        JdbcTemplate db = database("journal-written");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AlertJournal journal = new AlertJournal(properties, db, registry);
+        List<AlertEntity> alerts = new ArrayList<>();
+        for (int i = 0; i < ALERTS; i++) {
+            AlertEntity alert = new AlertEntity("A-" + i, "FIRE", "0000000" + (i % 10), 36.8, 10.18,
+                    "Alert " + i, AlertStatus.PENDING, LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(i));
+            alert.setVersion(0L);
+            db.update("INSERT INTO alerts (id, type, sender_cin, latitude, longitude, description, status, timestamp, version) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", alert.getId(), alert.getType(), alert.getSenderCin(),
+                    alert.getLatitude(), alert.getLongitude(), alert.getDescription(), alert.getStatus().name(),
+                    alert.getTimestamp(), alert.getVersion());
+            journal.created(List.of(alert));
+            alerts.add(alert);
+        }
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (AlertEntity alert : alerts) {
+                // As the service does: the database first, then the log
+                alert.setStatus(STATUSES[round % 2]);
+                alert.setVersion((long) round);
+                db.update("UPDATE alerts SET status = ?, version = ? WHERE id = ?",
+                        alert.getStatus().name(), alert.getVersion(), alert.getId());
+                journal.statusChanged(alert);
+            }
+        }
+        AlertEntity merged = alerts.getFirst();
+        for (int count = 2; count <= 3; count++) {
+            AlertReport report = new AlertReport(merged.getId(), count, "1111111" + count, "Report " + count,
+                    36.8001, 10.1801, LocalDateTime.of(2025, 1, 1, 9, count));
+            merged.setReportCount(count);
+            merged.setVersion(ROUNDS + count - 1L);
+            db.update("UPDATE alerts SET report_count = ?, version = ? WHERE id = ?",
+                    count, merged.getVersion(), merged.getId());
+            db.update("INSERT INTO alert_reports (alert_id, report_number, sender_cin, description, latitude, longitude, timestamp) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)", report.getAlertId(), report.getReportNumber(),
+                    report.getSenderCin(), report.getDescription(), report.getLatitude(), report.getLongitude(),
+                    report.getTimestamp());
+            journal.reportAdded(merged, report);
+        }
+        double size = registry.get("urgence.wal.size").gauge().value();
+        journal.destroy();
+
+        long segments = segmentFiles();
+        assertTrue(segments < 10, segments + " segments left");
+        assertTrue(size <= segments * 1024 && size > 0, "urgence.wal.size " + size);
+
+        JdbcTemplate restored = database("journal-restored");
+        new AlertJournal(properties, restored, new SimpleMeterRegistry()).destroy();
+        assertEquals(rows(db), rows(restored));
+        assertEquals(2, reports(db).size());
+        assertEquals(reports(db), reports(restored));
+    }
+
+    private WalProperties properties() {
+        WalProperties properties = new WalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(1));
+        properties.setCompactAfter(DataSize.ofKilobytes(2));
+        return properties;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(".wal")).count();
+        }
+    }
+
+    private static List<Map<String, Object>> rows(JdbcTemplate db) {
+        return db.queryForList("SELECT id, type, sender_cin, description, status, timestamp, version, report_count "
+                + "FROM alerts ORDER BY id");
+    }
+
+    private static List<Map<String, Object>> reports(JdbcTemplate db) {
+        return db.queryForList("SELECT alert_id, report_number, sender_cin, description, latitude, longitude, timestamp "
+                + "FROM alert_reports ORDER BY alert_id, report_number");
+    }
+
+    private static JdbcTemplate database(String name) {
+        JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1"));
+        db.execute("CREATE TABLE alerts (id VARCHAR(64) PRIMARY KEY, type VARCHAR(255) NOT NULL, sender_cin VARCHAR(8), "
+                + "latitude DOUBLE, longitude DOUBLE, geo_cell BIGINT, description VARCHAR(500), status VARCHAR(32), "
+                + "timestamp TIMESTAMP(6), version BIGINT, report_count INT DEFAULT 1 NOT NULL)");
+        db.execute("CREATE TABLE alert_reports (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "alert_id VARCHAR(255) NOT NULL, report_number INT NOT NULL, sender_cin VARCHAR(8), "
+                + "description VARCHAR(500), latitude DOUBLE, longitude DOUBLE, timestamp TIMESTAMP(6))");
+        return db;
+    }
+}
@@ -0,0 +1,97 @@
+package com.madinaconnect.urgence.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAcrossSegments() throws IOException {
+        List<String> written = new ArrayList<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE, payload -> {
+        })) {
+            for (int i = 0; i < 100; i++) {
+                written.add("alert-" + i);
+                wal.append(bytes("alert-" + i));
+            }
+        }
+        assertEquals(written, replay());
+        try (Stream<Path> files = Files.list(directory)) {
+            // Each record takes 15-16 bytes, so 100 of them need two 1 KB segments
+            assertEquals(2, files.filter(p -> p.toString().endsWith(".wal")).count());
+        }
+    }
+
+    @Test
+    void tornRecordIsDroppedAndOverwritten() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE, payload -> {
+        })) {
+            wal.append(bytes("first"));
+            wal.append(bytes("second"));
+        }
+        // Crash in the middle of "second": its payload no longer matches the checksum
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000000000000.wal").toFile(), "rw")) {
+            file.seek(8 + 5 + 8);
+            file.write('X');
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE, payload -> replayed.add(string(payload)))) {
+            wal.append(bytes("third"));
+        }
+        assertEquals(List.of("first"), replayed);
+        assertEquals(List.of("first", "third"), replay());
+    }
+
+    @Test
+    void segmentsBeforeARollCanBeDeleted() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE, payload -> {
+        })) {
+            for (int i = 0; i < 100; i++) {
+                wal.append(bytes("old-" + i));
+            }
+            long first = wal.roll();
+            wal.append(bytes("new"));
+            assertEquals(3, wal.segmentCount());
+
+            assertEquals(2, wal.deleteBefore(first));
+            assertEquals(1, wal.segmentCount());
+            assertEquals(SEGMENT_SIZE, wal.size());
+            // Never the segment being written
+            assertEquals(0, wal.deleteBefore(first + 1));
+            wal.append(bytes("newer"));
+        }
+        assertEquals(List.of("new", "newer"), replay());
+    }
+
+    private List<String> replay() throws IOException {
+        List<String> replayed = new ArrayList<>();
+        WriteAheadLog.open(directory, SEGMENT_SIZE, payload -> replayed.add(string(payload))).close();
+        return replayed;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+    }
+}